@@ -0,0 +1,127 @@
+package com.insurai.insurai.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    // Outbox drains and digest flushes. Submitters handle a rejection themselves (the outbox poll and the
+    // next flush tick retry), so saturation never runs this work on a request thread
+    @Bean(name = "notificationExecutor")
+    public Executor notificationExecutor(@Value("${notifications.executor.pool-size:2}") int poolSize,
+                                         @Value("${notifications.executor.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notify-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Staff fan-out for new claims, kept apart from the outbox drain. When its threads and queue are full
+    // the fan-out is dropped and counted instead of running on the claim-submission request thread
+    @Bean(name = "fanoutExecutor")
+    public Executor fanoutExecutor(MeterRegistry meterRegistry,
+                                   @Value("${notifications.fanout.pool-size:2}") int poolSize,
+                                   @Value("${notifications.fanout.queue-capacity:1000}") int queueCapacity) {
+        Counter rejected = Counter.builder("notifications.fanout.rejected")
+                .description("Notification fan-outs dropped because the fan-out executor was saturated")
+                .register(meterRegistry);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fanout-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            log.warn("Notification fan-out executor saturated; dropping a fan-out");
+        });
+        executor.initialize();
+        return executor;
+    }
+
+    // Notification retention sweeps. One thread and no queue: a trigger that finds a sweep still running
+    // is dropped, since the next one picks up where it left off
+    @Bean(name = "retentionExecutor")
+    public Executor retentionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("retention-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Socket writes for NotificationWebSocketHandler; each session has at most one flush task running.
+    // Virtual threads, so a client that stops reading parks only its own flush (until the container's
+    // send timeout) instead of holding a pool thread that healthy sessions are waiting for
+    @Bean(name = "websocketSendExecutor")
+    public Executor websocketSendExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ws-send-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    // Spring MVC writes streamed (Server-Sent Events) responses from this pool; without it every
+    // emission would start a thread on the SimpleAsyncTaskExecutor fallback. The queue is bounded so a
+    // burst to slow clients cannot pile up behind the per-stream buffers: a rejected emission is counted
+    // and rethrown, Spring cancels that stream, and NotificationController ends its response so the
+    // browser reconnects and replays from its Last-Event-ID
+    @Bean(name = "mvcAsyncExecutor")
+    public AsyncTaskExecutor mvcAsyncExecutor(MeterRegistry meterRegistry,
+                                              @Value("${notifications.sse.send-threads:4}") int poolSize,
+                                              @Value("${notifications.sse.send-queue-capacity:1000}") int queueCapacity) {
+        Counter rejected = Counter.builder("notifications.sse.rejected")
+                .description("SSE emissions rejected because the send executor was saturated")
+                .register(meterRegistry);
+        RejectedExecutionHandler abort = new ThreadPoolExecutor.AbortPolicy();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("sse-send-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            abort.rejectedExecution(task, pool);
+        });
+        executor.initialize();
+        return executor;
+    }
+
+    // Password checks during login. BCrypt is CPU-bound by design, so a login burst is confined to these
+    // threads and a short queue; beyond that submissions are rejected and the caller answers 429
+    @Bean(name = "loginExecutor")
+    public Executor loginExecutor(@Value("${security.login.threads:2}") int threads,
+                                  @Value("${security.login.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("login-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
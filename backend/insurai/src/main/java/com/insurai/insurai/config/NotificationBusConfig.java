@@ -0,0 +1,42 @@
+package com.insurai.insurai.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurai.insurai.service.BrokerNotificationBus;
+import com.insurai.insurai.service.InProcessNotificationBus;
+import com.insurai.insurai.service.NotificationBus;
+import com.insurai.insurai.service.PostgresNotificationBroker;
+
+@Configuration
+public class NotificationBusConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "notifications.bus.type", havingValue = "in-process", matchIfMissing = true)
+    public NotificationBus inProcessNotificationBus() {
+        return new InProcessNotificationBus();
+    }
+
+    // Needed as soon as more than one backend instance runs behind the load balancer
+    @Bean
+    @ConditionalOnProperty(name = "notifications.bus.type", havingValue = "postgres")
+    public PostgresNotificationBroker postgresNotificationBroker(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                                                 PlatformTransactionManager transactionManager,
+                                                                 @Value("${notifications.bus.channel:insurai_notifications}") String channel,
+                                                                 @Value("${notifications.bus.poll-ms:500}") int pollMillis) {
+        return new PostgresNotificationBroker(dataSource, jdbcTemplate, transactionManager, channel, pollMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "notifications.bus.type", havingValue = "postgres")
+    public NotificationBus postgresNotificationBus(PostgresNotificationBroker broker, ObjectMapper objectMapper) {
+        return new BrokerNotificationBus(broker, objectMapper);
+    }
+}
@@ -0,0 +1,39 @@
+package com.insurai.insurai.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AsyncTaskExecutor mvcAsyncExecutor;
+
+    public WebMvcConfig(EntityManagerFactory entityManagerFactory,
+                        @Qualifier("mvcAsyncExecutor") AsyncTaskExecutor mvcAsyncExecutor) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+    }
+
+    // Replaces spring.jpa.open-in-view (disabled in application.properties) so responses can still render lazy
+    // associations, except on the notification event stream: an open-in-view EntityManager would hold a pooled
+    // connection for as long as each stream stays open
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns("/api/notifications/stream");
+    }
+}
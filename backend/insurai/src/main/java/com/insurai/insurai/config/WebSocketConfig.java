@@ -6,19 +6,24 @@ import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 
 import com.insurai.insurai.handler.NotificationWebSocketHandler;
+import com.insurai.insurai.security.JwtHandshakeInterceptor;
 
 @Configuration
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final NotificationWebSocketHandler notificationWebSocketHandler;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
 
-    public WebSocketConfig(NotificationWebSocketHandler notificationWebSocketHandler) {
+    public WebSocketConfig(NotificationWebSocketHandler notificationWebSocketHandler, JwtHandshakeInterceptor jwtHandshakeInterceptor) {
         this.notificationWebSocketHandler = notificationWebSocketHandler;
+        this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(notificationWebSocketHandler, "/ws/notifications").setAllowedOrigins("*");
+        registry.addHandler(notificationWebSocketHandler, "/ws/notifications")
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setAllowedOrigins("*");
     }
 }
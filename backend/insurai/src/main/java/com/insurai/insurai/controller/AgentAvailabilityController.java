@@ -1,9 +1,14 @@
 package com.insurai.insurai.controller;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,12 +17,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.insurai.insurai.dto.AgentAvailabilityRequest;
 import com.insurai.insurai.dto.BookedRequestDTO;
+import com.insurai.insurai.dto.FreeWindowDTO;
 import com.insurai.insurai.dto.OnlineAgentDTO;
+import com.insurai.insurai.dto.RecurringAvailabilityRequest;
 import com.insurai.insurai.model.AgentAvailability;
+import com.insurai.insurai.model.UserCategory;
 import com.insurai.insurai.repository.AgentAvailabilityRepository;
 import com.insurai.insurai.service.AgentAvailabilityService;
 
@@ -43,6 +52,16 @@ public class AgentAvailabilityController {
         return ResponseEntity.ok(service.saveAvailability(request));
     }
 
+    @PostMapping("/recurring")
+    public ResponseEntity<?> createRecurringAvailability(@RequestBody RecurringAvailabilityRequest request) {
+        try {
+            List<AgentAvailability> slots = service.saveRecurringAvailability(request);
+            return ResponseEntity.ok(Map.of("created", slots.size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{agentId}")
     public ResponseEntity<List<AgentAvailability>> getAvailability(@PathVariable String agentId) {
         return ResponseEntity.ok(service.getAvailabilityByAgentId(agentId));
@@ -52,22 +71,63 @@ public class AgentAvailabilityController {
     public ResponseEntity<?> bookSlot(@PathVariable Integer id, @RequestBody Map<String, Object> payload) {
         if (payload.containsKey("userId")) {
             String userId = payload.get("userId").toString();
-            boolean success = service.bookSlot(id, userId);
-            if (success) {
+            AgentAvailabilityService.BookingResult result = service.bookSlot(id, userId);
+            if (result == AgentAvailabilityService.BookingResult.BOOKED) {
                 return ResponseEntity.ok().build();
             }
+            if (result == AgentAvailabilityService.BookingResult.ALREADY_BOOKED) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Slot is already booked"));
+            }
+            if (result == AgentAvailabilityService.BookingResult.NOT_AVAILABLE) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Slot is not open for booking"));
+            }
         }
         return ResponseEntity.notFound().build();
     }
 
     // UPDATED ENDPOINT: Get all online agents (status = "Available") with full name
     @GetMapping("/online")
-    public ResponseEntity<List<OnlineAgentDTO>> getOnlineAgents() {
-        return ResponseEntity.ok(service.getOnlineAgents());
+    public ResponseEntity<List<OnlineAgentDTO>> getOnlineAgents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) UserCategory category) {
+        return ResponseEntity.ok(service.getOnlineAgents(date, category));
+    }
+
+    @GetMapping("/free")
+    public ResponseEntity<List<String>> getFreeAgents(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.findFreeAgents(start, end));
+    }
+
+    @GetMapping("/{agentId}/next-free")
+    public ResponseEntity<FreeWindowDTO> getNextFreeWindow(
+            @PathVariable String agentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "30") int minutes) {
+        if (minutes < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        FreeWindowDTO window = service.findNextFreeWindow(agentId, from != null ? from : LocalDateTime.now(), Duration.ofMinutes(minutes));
+        if (window == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(window);
     }
 
     @GetMapping("/booked/{agentId}")
-    public ResponseEntity<List<BookedRequestDTO>> getBookedRequests(@PathVariable String agentId) {
-        return ResponseEntity.ok(service.getBookedRequestsByAgentId(agentId));
+    public ResponseEntity<List<BookedRequestDTO>> getBookedRequests(
+            @PathVariable String agentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > 200) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.getBookedRequestsByAgentId(agentId, from, to, page, size));
     }
 }
@@ -2,19 +2,28 @@ package com.insurai.insurai.controller;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.insurai.insurai.model.User;
 import com.insurai.insurai.model.UserCategory;
+import com.insurai.insurai.security.TokenRevocationList;
 import com.insurai.insurai.service.AuthService;
+import com.insurai.insurai.service.RefreshTokenService;
 import com.insurai.insurai.util.JwtUtil;
+import com.insurai.insurai.util.VerifiedToken;
+
+import io.jsonwebtoken.JwtException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -22,10 +31,15 @@ import com.insurai.insurai.util.JwtUtil;
 public class AuthController {
     private final AuthService authService;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
 
-    public AuthController(AuthService authService, JwtUtil jwtUtil) {
+    public AuthController(AuthService authService, JwtUtil jwtUtil, RefreshTokenService refreshTokenService,
+                          TokenRevocationList revocationList) {
         this.authService = authService;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
     }
 
     @PostMapping("/signup")
@@ -34,8 +48,10 @@ public class AuthController {
         return ResponseEntity.ok(savedUser);
     }
 
+    // Completes asynchronously once the login executor has checked the password, so bursts of BCrypt
+    // work never hold servlet threads; when that executor is saturated the caller is told to retry
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> credentials) {
         String email = credentials.get("email");
         String password = credentials.get("password");
         String categoryStr = credentials.get("category");
@@ -43,28 +59,36 @@ public class AuthController {
         if (email == null || password == null || categoryStr == null) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Email, password, and category are required");
-            return ResponseEntity.badRequest().body(errorResponse);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errorResponse));
         }
 
+        UserCategory category;
         try {
-            UserCategory category = UserCategory.valueOf(categoryStr.toUpperCase());
-            User user = authService.loginUser(email, password, category).orElse(null);
-
-            if (user != null) {
-                String token = jwtUtil.generateToken(user.getEmail(), user.getCategory().toString());
-                Map<String, Object> response = new HashMap<>();
-                response.put("token", token);
-                response.put("user", user);
-                return ResponseEntity.ok(response);
-            } else {
-                Map<String, String> errorResponse = new HashMap<>();
-                errorResponse.put("error", "Invalid credentials");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
-            }
+            category = UserCategory.valueOf(categoryStr.toUpperCase());
         } catch (IllegalArgumentException e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Invalid category");
-            return ResponseEntity.badRequest().body(errorResponse);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errorResponse));
+        }
+
+        try {
+            return authService.loginUser(email, password, category).thenApply(user -> {
+                if (user.isPresent()) {
+                    String token = jwtUtil.generateToken(user.get().getEmail(), user.get().getCategory().toString());
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("token", token);
+                    response.put("refreshToken", refreshTokenService.issue(user.get()));
+                    response.put("user", user.get());
+                    return ResponseEntity.ok(response);
+                }
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Invalid credentials");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Too many login attempts, please retry shortly")));
         }
     }
 
@@ -77,27 +101,35 @@ public class AuthController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
 
-        try {
-            // For now, we'll generate a new token using the existing token
-            // In a production system, you might want to use a separate refresh token
-            String username = jwtUtil.extractUsername(refreshToken);
-            if (username != null && jwtUtil.validateToken(refreshToken, username)) {
-                String category = jwtUtil.extractCategory(refreshToken);
-                String newToken = jwtUtil.generateToken(username, category);
-
-                Map<String, Object> response = new HashMap<>();
-                response.put("token", newToken);
-                return ResponseEntity.ok(response);
-            } else {
-                Map<String, String> errorResponse = new HashMap<>();
-                errorResponse.put("error", "Invalid refresh token");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        // Unknown, expired, already used or revoked tokens all get the same answer
+        return refreshTokenService.rotate(refreshToken)
+                .<ResponseEntity<?>>map(rotation -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("token", jwtUtil.generateToken(rotation.user().getEmail(), rotation.user().getCategory().toString()));
+                    response.put("refreshToken", rotation.refreshToken());
+                    return ResponseEntity.ok(response);
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid refresh token")));
+    }
+
+    // Ends the session: the refresh token's family can no longer refresh and the access token is
+    // rejected for the rest of its lifetime
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+                                    @RequestBody(required = false) Map<String, String> request) {
+        String refreshToken = request != null ? request.get("refreshToken") : null;
+        if (refreshToken != null && !refreshToken.trim().isEmpty()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                VerifiedToken verified = jwtUtil.verify(authHeader.substring(7));
+                revocationList.revoke(verified.tokenId(), verified.expiresAt());
+            } catch (JwtException | IllegalArgumentException e) {
+                // Already invalid or expired, nothing left to revoke
             }
-        } catch (Exception e) {
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Token refresh failed");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
         }
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
     }
 
     @PostMapping("/validate")
@@ -108,8 +140,8 @@ public class AuthController {
         }
 
         try {
-            String username = jwtUtil.extractUsername(token);
-            if (username != null && jwtUtil.validateToken(token, username)) {
+            VerifiedToken verified = jwtUtil.verify(token);
+            if (verified.username() != null && !revocationList.isRevoked(verified.tokenId())) {
                 return ResponseEntity.ok(Map.of("valid", true));
             } else {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false));
@@ -1,17 +1,27 @@
 package com.insurai.insurai.controller;
 
+import com.insurai.insurai.dto.ClaimPageDTO;
+import com.insurai.insurai.dto.ClaimStatusResultDTO;
+import com.insurai.insurai.dto.ClaimStatusUpdateRequest;
 import com.insurai.insurai.model.Claim;
 import com.insurai.insurai.service.ClaimService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/claims")
 @CrossOrigin(origins = "http://localhost:5173")
 public class ClaimController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BULK_SIZE = 5000;
+
     private final ClaimService claimService;
 
     public ClaimController(ClaimService claimService) {
@@ -24,6 +34,30 @@ public class ClaimController {
         return ResponseEntity.ok(claims);
     }
 
+    // Filtered, newest-first pages of claims; pass nextCursor back as cursor for the following page
+    @GetMapping("/page")
+    public ResponseEntity<?> getClaimPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String claimType,
+            @RequestParam(required = false) String policyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate filedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate filedTo,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        try {
+            ClaimPageDTO page = claimService.getClaimPage(status, claimType, policyId, filedFrom, filedTo,
+                    minAmount, maxAmount, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Claim>> getClaimsByUserId(@PathVariable String userId) {
         List<Claim> claims = claimService.getClaimsByUserId(userId);
@@ -37,9 +71,31 @@ public class ClaimController {
     }
 
     @PutMapping("/{claimId}")
-    public ResponseEntity<Claim> updateClaim(@PathVariable String claimId, @RequestBody Claim claim) {
-        Claim updatedClaim = claimService.updateClaim(claimId, claim);
-        return ResponseEntity.ok(updatedClaim);
+    public ResponseEntity<?> updateClaim(@PathVariable String claimId, @RequestBody Claim claim) {
+        try {
+            Claim updatedClaim = claimService.updateClaim(claimId, claim);
+            return ResponseEntity.ok(updatedClaim);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Bulk status change, e.g. month-end approvals; the report has one entry per distinct claim id
+    @PutMapping("/status")
+    public ResponseEntity<?> updateClaimStatuses(@RequestBody ClaimStatusUpdateRequest request) {
+        if (request.getClaimIds() == null || request.getClaimIds().isEmpty() || request.getStatus() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "claimIds and status are required"));
+        }
+        if (request.getClaimIds().size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BULK_SIZE + " claims per request"));
+        }
+        try {
+            List<ClaimStatusResultDTO> results = claimService.updateClaimStatuses(request.getClaimIds(), request.getStatus());
+            long updated = results.stream().filter(r -> r.getOutcome() == ClaimService.TransitionOutcome.UPDATED).count();
+            return ResponseEntity.ok(Map.of("status", request.getStatus(), "updated", updated, "results", results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @DeleteMapping("/{claimId}")
@@ -1,28 +1,77 @@
 package com.insurai.insurai.controller;
 
+import java.io.IOException;
+import java.security.Principal;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.insurai.insurai.dto.NotificationPageDTO;
 import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.model.User;
+import com.insurai.insurai.repository.UserRepository;
 import com.insurai.insurai.service.NotificationService;
+import com.insurai.insurai.service.NotificationStreamService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/notifications")
 @CrossOrigin(origins = "http://localhost:5173")
 public class NotificationController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationService notificationService;
+    private final NotificationStreamService streamService;
+    private final UserRepository userRepository;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, NotificationStreamService streamService,
+                                  UserRepository userRepository) {
         this.notificationService = notificationService;
+        this.streamService = streamService;
+        this.userRepository = userRepository;
+    }
+
+    // Event-stream fallback for clients whose proxies drop WebSockets; same frames and resume ids as /ws/notifications
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamNotifications(Principal principal, HttpServletRequest request,
+                                                 @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        User user = userRepository.findByEmail(principal.getName()).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unknown user"));
+        }
+        // Spring cancels the stream without ending the response when the send executor rejects an emission;
+        // end it here so the browser reconnects instead of waiting out the async timeout
+        Flux<ServerSentEvent<String>> events = streamService.stream(user.getId(), lastEventId)
+                .doOnCancel(() -> completeStream(request));
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(events);
+    }
+
+    private void completeStream(HttpServletRequest request) {
+        try {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().complete();
+            }
+        } catch (IllegalStateException e) {
+            // Already completed by a disconnect or timeout
+        }
     }
 
     @GetMapping("/{userId}")
@@ -31,12 +80,65 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    @GetMapping("/{userId}/page")
+    public ResponseEntity<?> getNotificationPage(@PathVariable String userId,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        try {
+            NotificationPageDTO page = notificationService.getNotificationPage(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // from/to are inclusive months such as 2025-01; pages follow nextCursor like /page
+    @GetMapping("/{userId}/archive")
+    public ResponseEntity<?> getArchivedNotifications(@PathVariable String userId,
+                                                      @RequestParam(required = false) String from,
+                                                      @RequestParam(required = false) String to,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        try {
+            YearMonth fromMonth = from != null ? YearMonth.parse(from) : null;
+            YearMonth toMonth = to != null ? YearMonth.parse(to) : null;
+            return ResponseEntity.ok(notificationService.getArchivedNotifications(userId, fromMonth, toMonth, cursor, limit));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from and to must be months like 2025-01"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Error reading archive: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{userId}/unread")
     public ResponseEntity<List<Notification>> getUnreadNotifications(@PathVariable String userId) {
         List<Notification> notifications = notificationService.getUnreadNotificationsByUserId(userId);
         return ResponseEntity.ok(notifications);
     }
 
+    // Badge count served from the per-user counter instead of shipping every unread row
+    @GetMapping("/{userId}/unread/count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable String userId) {
+        return ResponseEntity.ok(Map.of("count", notificationService.getUnreadCount(userId)));
+    }
+
+    @PutMapping("/{userId}/read-all")
+    public ResponseEntity<?> markAllAsRead(@PathVariable String userId, @RequestParam(required = false) String upToId) {
+        int updated = notificationService.markAllAsRead(userId, upToId);
+        if (updated < 0) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Notification not found for this user"));
+        }
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
     @PutMapping("/{id}/read")
     public ResponseEntity<Notification> markAsRead(@PathVariable String id) {
         Notification notification = notificationService.markAsRead(id);
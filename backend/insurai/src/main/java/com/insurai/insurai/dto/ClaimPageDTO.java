@@ -0,0 +1,24 @@
+package com.insurai.insurai.dto;
+
+import java.util.List;
+
+import com.insurai.insurai.model.Claim;
+
+public class ClaimPageDTO {
+    private List<Claim> items;
+    private String nextCursor;
+
+    public ClaimPageDTO() {}
+
+    public ClaimPageDTO(List<Claim> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Claim> getItems() { return items; }
+    public void setItems(List<Claim> items) { this.items = items; }
+
+    // Null when there are no older claims matching the filters
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,33 @@
+package com.insurai.insurai.dto;
+
+import com.insurai.insurai.service.ClaimService.TransitionOutcome;
+
+public class ClaimStatusResultDTO {
+    private String claimId;
+    private TransitionOutcome outcome;
+    private String previousStatus;
+    private String error;
+
+    public ClaimStatusResultDTO() {}
+
+    public ClaimStatusResultDTO(String claimId, TransitionOutcome outcome, String previousStatus, String error) {
+        this.claimId = claimId;
+        this.outcome = outcome;
+        this.previousStatus = previousStatus;
+        this.error = error;
+    }
+
+    public String getClaimId() { return claimId; }
+    public void setClaimId(String claimId) { this.claimId = claimId; }
+
+    public TransitionOutcome getOutcome() { return outcome; }
+    public void setOutcome(TransitionOutcome outcome) { this.outcome = outcome; }
+
+    // Null for claims that do not exist
+    public String getPreviousStatus() { return previousStatus; }
+    public void setPreviousStatus(String previousStatus) { this.previousStatus = previousStatus; }
+
+    // Null unless the claim was left untouched because of a problem
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
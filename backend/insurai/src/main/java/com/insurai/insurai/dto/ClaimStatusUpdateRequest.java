@@ -0,0 +1,24 @@
+package com.insurai.insurai.dto;
+
+import java.util.List;
+
+public class ClaimStatusUpdateRequest {
+    private List<String> claimIds;
+    private String status;
+
+    public List<String> getClaimIds() {
+        return claimIds;
+    }
+
+    public void setClaimIds(List<String> claimIds) {
+        this.claimIds = claimIds;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,26 @@
+package com.insurai.insurai.dto;
+
+import java.time.LocalDateTime;
+
+public class FreeWindowDTO {
+    private String agentId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public FreeWindowDTO() {}
+
+    public FreeWindowDTO(String agentId, LocalDateTime start, LocalDateTime end) {
+        this.agentId = agentId;
+        this.start = start;
+        this.end = end;
+    }
+
+    public String getAgentId() { return agentId; }
+    public void setAgentId(String agentId) { this.agentId = agentId; }
+
+    public LocalDateTime getStart() { return start; }
+    public void setStart(LocalDateTime start) { this.start = start; }
+
+    public LocalDateTime getEnd() { return end; }
+    public void setEnd(LocalDateTime end) { this.end = end; }
+}
@@ -0,0 +1,24 @@
+package com.insurai.insurai.dto;
+
+import java.util.List;
+
+import com.insurai.insurai.model.Notification;
+
+public class NotificationPageDTO {
+    private List<Notification> items;
+    private String nextCursor;
+
+    public NotificationPageDTO() {}
+
+    public NotificationPageDTO(List<Notification> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Notification> getItems() { return items; }
+    public void setItems(List<Notification> items) { this.items = items; }
+
+    // Null when there are no older notifications
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
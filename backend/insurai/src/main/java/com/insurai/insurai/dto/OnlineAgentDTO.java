@@ -1,5 +1,10 @@
 package com.insurai.insurai.dto;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.insurai.insurai.model.UserCategory;
+
 public class OnlineAgentDTO {
     private String id;
     private String agentId;
@@ -12,6 +17,26 @@ public class OnlineAgentDTO {
     private String startTime;
     private String endTime;
 
+    public OnlineAgentDTO() {}
+
+    // Used by the JPQL constructor projection in AgentAvailabilityRepository
+    public OnlineAgentDTO(Integer availabilityId, String agentId, String email, String firstName, String lastName, String phone, UserCategory category, LocalDate availabilityDate, LocalTime startTime, LocalTime endTime) {
+        this.id = availabilityId.toString();
+        this.agentId = agentId;
+        if (category == UserCategory.AGENT) {
+            this.email = email;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.phone = phone;
+            this.fullName = firstName + " " + lastName;
+        } else {
+            this.fullName = agentId;
+        }
+        this.availabilityDate = availabilityDate.toString();
+        this.startTime = startTime.toString();
+        this.endTime = endTime.toString();
+    }
+
     // Getters and setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -0,0 +1,41 @@
+package com.insurai.insurai.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public class RecurringAvailabilityRequest {
+    private String agentId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<DayOfWeek> daysOfWeek;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String notes;
+    private List<AgentAvailabilityRequest.BreakRequest> breaks;
+
+    public String getAgentId() { return agentId; }
+    public void setAgentId(String agentId) { this.agentId = agentId; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public List<DayOfWeek> getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(List<DayOfWeek> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public List<AgentAvailabilityRequest.BreakRequest> getBreaks() { return breaks; }
+    public void setBreaks(List<AgentAvailabilityRequest.BreakRequest> breaks) { this.breaks = breaks; }
+}
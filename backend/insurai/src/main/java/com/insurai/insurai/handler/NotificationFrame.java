@@ -0,0 +1,47 @@
+package com.insurai.insurai.handler;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.web.socket.TextMessage;
+
+// A notification encoded once and shared, unchanged, by every session it is delivered to.
+// Built from UTF-8 bytes so getPayloadLength() (used for send-buffer accounting) never re-encodes.
+public final class NotificationFrame {
+
+    private final String userId;
+    private final long seq;
+    private final String notificationId;
+    private final TextMessage message;
+
+    public NotificationFrame(String userId, long seq, String notificationId, byte[] utf8Payload) {
+        this.userId = userId;
+        this.seq = seq;
+        this.notificationId = notificationId;
+        this.message = new TextMessage(utf8Payload);
+    }
+
+    public NotificationFrame(String userId, String payload) {
+        this(userId, 0, null, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    // Position in this node's push stream; increases with every frame published
+    public long getSeq() {
+        return seq;
+    }
+
+    public String getNotificationId() {
+        return notificationId;
+    }
+
+    public String getPayload() {
+        return message.getPayload();
+    }
+
+    public TextMessage getMessage() {
+        return message;
+    }
+}
@@ -1,34 +1,151 @@
 package com.insurai.insurai.handler;
 
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
+import org.apache.tomcat.websocket.Constants;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.TextMessage;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import com.insurai.insurai.security.JwtHandshakeInterceptor;
+import com.insurai.insurai.service.NotificationReplayLog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.websocket.Session;
+
+// Each session gets a SessionSender: callers (the outbox dispatcher, the bus listener) only enqueue,
+// and one flush task per session writes on the send executor. A session that buffers past the size
+// limit, or stays mid-send past the time limit, is closed. The container's blocking send timeout is set
+// to the same limit, so a write to a client that stopped reading fails and drops the session even when
+// no further frame arrives to notice the stall.
 @Component
 public class NotificationWebSocketHandler extends TextWebSocketHandler {
 
-    private static final CopyOnWriteArraySet<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
+    // userId -> that user's open sessions (one per tab/device), keyed by session id
+    private final Map<String, Map<String, SessionSender>> sessionsByUser = new ConcurrentHashMap<>();
+
+    private final NotificationReplayLog replayLog;
+    private final Executor sendExecutor;
+    private final int bufferSizeLimit;
+    private final int sendTimeLimitMillis;
+    private final Counter bufferLimitCloses;
+    private final Counter sendTimeLimitCloses;
+
+    public NotificationWebSocketHandler(NotificationReplayLog replayLog,
+                                        @Qualifier("websocketSendExecutor") Executor sendExecutor,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${notifications.ws.buffer-size-limit:524288}") int bufferSizeLimit,
+                                        @Value("${notifications.ws.send-time-limit-ms:10000}") int sendTimeLimitMillis) {
+        this.replayLog = replayLog;
+        this.sendExecutor = sendExecutor;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.bufferLimitCloses = Counter.builder("notifications.ws.slow.closed")
+                .tag("reason", "buffer-limit")
+                .description("Sessions closed for exceeding the send buffer limit")
+                .register(meterRegistry);
+        this.sendTimeLimitCloses = Counter.builder("notifications.ws.slow.closed")
+                .tag("reason", "send-time-limit")
+                .description("Sessions closed for exceeding the send time limit")
+                .register(meterRegistry);
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        sessions.add(session);
+        String userId = userId(session);
+        if (userId == null) {
+            session.close(CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session endpoint = nativeSession.getNativeSession(Session.class);
+            if (endpoint != null) {
+                endpoint.getUserProperties().put(Constants.BLOCKING_SEND_TIMEOUT_PROPERTY, (long) sendTimeLimitMillis);
+            }
+        }
+        SessionSender sender = new SessionSender(session, sendExecutor, bufferSizeLimit, sendTimeLimitMillis,
+                () -> closeSlow(userId, session.getId(), SessionSender.Overflow.SEND_TIME_LIMIT));
+        // Missed frames are queued ahead of anything published after registration
+        replayLog.attach(userId, resumePoint(session.getUri()), missed -> {
+            sessionsByUser.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).put(session.getId(), sender);
+            for (NotificationFrame frame : missed) {
+                deliver(userId, sender, frame);
+            }
+        });
     }
 
     @Override
-    public void afterConnectionClosed(WebSocketSession session, org.springframework.web.socket.CloseStatus status) throws Exception {
-        sessions.remove(session);
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        String userId = userId(session);
+        if (userId == null) {
+            return;
+        }
+        sessionsByUser.computeIfPresent(userId, (id, senders) -> {
+            senders.remove(session.getId());
+            return senders.isEmpty() ? null : senders;
+        });
     }
 
-    public static void broadcast(String message) {
-        for (WebSocketSession session : sessions) {
-            try {
-                session.sendMessage(new TextMessage(message));
-            } catch (Exception e) {
-                // Handle exception
-            }
+    // Enqueues the same frame for each of the user's sessions; the caller never waits on a socket write
+    public void send(NotificationFrame frame) {
+        Map<String, SessionSender> senders = sessionsByUser.get(frame.getUserId());
+        if (senders == null) {
+            return;
         }
+        for (SessionSender sender : senders.values()) {
+            deliver(frame.getUserId(), sender, frame);
+        }
+    }
+
+    private void deliver(String userId, SessionSender sender, NotificationFrame frame) {
+        SessionSender.Overflow overflow = sender.enqueue(frame.getMessage());
+        if (overflow != SessionSender.Overflow.NONE) {
+            closeSlow(userId, sender.getSession().getId(), overflow);
+        }
+    }
+
+    public int getSessionCount() {
+        return sessionsByUser.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private void closeSlow(String userId, String sessionId, SessionSender.Overflow overflow) {
+        Map<String, SessionSender> senders = sessionsByUser.get(userId);
+        SessionSender sender = senders != null ? senders.remove(sessionId) : null;
+        if (sender == null) {
+            return;
+        }
+        (overflow == SessionSender.Overflow.BUFFER_LIMIT ? bufferLimitCloses : sendTimeLimitCloses).increment();
+        sender.close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    // Clients reconnect with ?epoch=&lastSeq=&lastId= taken from the last frame they processed
+    private static NotificationReplayLog.ResumePoint resumePoint(URI uri) {
+        if (uri == null) {
+            return null;
+        }
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+        String lastSeq = params.getFirst("lastSeq");
+        if (lastSeq == null) {
+            return null;
+        }
+        try {
+            return new NotificationReplayLog.ResumePoint(params.getFirst("epoch"), Long.parseLong(lastSeq), params.getFirst("lastId"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String userId(WebSocketSession session) {
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
     }
 }
@@ -0,0 +1,119 @@
+package com.insurai.insurai.handler;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+// Per-session send queue. Callers only enqueue; a single flush task per session writes to the socket
+// on the send executor, so a client that stops reading never blocks the caller or other sessions.
+// A session whose buffered bytes exceed the limit, or that is found mid-send past the time limit when
+// the next frame arrives, is reported to the caller; a write the container times out is reported
+// through onSendTimeout.
+class SessionSender {
+
+    enum Overflow { NONE, BUFFER_LIMIT, SEND_TIME_LIMIT }
+
+    private final WebSocketSession session;
+    private final Executor executor;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimitMillis;
+    private final Runnable onSendTimeout;
+
+    private final Queue<TextMessage> queue = new ArrayDeque<>();
+    private int bufferedBytes;
+    private boolean flushScheduled;
+    private volatile long sendStartedAt;
+    private volatile boolean closed;
+
+    SessionSender(WebSocketSession session, Executor executor, int bufferSizeLimit, long sendTimeLimitMillis,
+                  Runnable onSendTimeout) {
+        this.session = session;
+        this.executor = executor;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.onSendTimeout = onSendTimeout;
+    }
+
+    WebSocketSession getSession() {
+        return session;
+    }
+
+    // Returns the limit that was exceeded, in which case the caller should close the session
+    Overflow enqueue(TextMessage message) {
+        if (closed) {
+            return Overflow.NONE;
+        }
+        if (isStalled()) {
+            return Overflow.SEND_TIME_LIMIT;
+        }
+        boolean schedule;
+        synchronized (this) {
+            if (bufferedBytes + message.getPayloadLength() > bufferSizeLimit) {
+                return Overflow.BUFFER_LIMIT;
+            }
+            queue.add(message);
+            bufferedBytes += message.getPayloadLength();
+            schedule = !flushScheduled;
+            flushScheduled = true;
+        }
+        if (schedule) {
+            executor.execute(this::flush);
+        }
+        return Overflow.NONE;
+    }
+
+    boolean isStalled() {
+        long started = sendStartedAt;
+        return started != 0 && System.currentTimeMillis() - started > sendTimeLimitMillis;
+    }
+
+    void close(CloseStatus status) {
+        closed = true;
+        synchronized (this) {
+            queue.clear();
+            bufferedBytes = 0;
+        }
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            // Already closing
+        }
+    }
+
+    private void flush() {
+        while (true) {
+            TextMessage message;
+            synchronized (this) {
+                message = queue.poll();
+                if (message == null) {
+                    flushScheduled = false;
+                    return;
+                }
+                bufferedBytes -= message.getPayloadLength();
+            }
+            if (closed || !session.isOpen()) {
+                continue;
+            }
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                session.sendMessage(message);
+            } catch (IOException e) {
+                // A write the container gave up on counts as stalled; anything else is a dropped connection,
+                // cleaned up in afterConnectionClosed
+                if (e instanceof SocketTimeoutException || e.getCause() instanceof SocketTimeoutException) {
+                    onSendTimeout.run();
+                }
+            } catch (RuntimeException e) {
+                // Dropped connection, cleaned up in afterConnectionClosed
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+    }
+}
@@ -13,11 +13,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "agent_availability")
+@Table(name = "agent_availability", indexes = {
+    @Index(name = "idx_agent_availability_status_date", columnList = "status, availability_date")
+})
 public class AgentAvailability {
 
     @Id
@@ -4,12 +4,17 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +22,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "claims")
+@Table(name = "claims", indexes = {
+    // Serve the paged claims listing (ClaimPageRepositoryImpl) in (date_filed, claim_id) order:
+    // unfiltered, by status (adjuster queues) and by policy. Claim type, date and amount ranges are
+    // checked against the rows these return.
+    @Index(name = "idx_claims_date_filed", columnList = "date_filed DESC, claim_id DESC"),
+    @Index(name = "idx_claims_status_date_filed", columnList = "status, date_filed DESC, claim_id DESC"),
+    @Index(name = "idx_claims_policy_date_filed", columnList = "policy_id, date_filed DESC, claim_id DESC"),
+    @Index(name = "idx_claims_user", columnList = "user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,7 +66,12 @@ public class Claim {
     @Column(name = "date_of_incident", nullable = false)
     private LocalDate dateOfIncident;
 
+    // Fetched with the claim by the paged listing; elsewhere loaded for up to 100 claims per SELECT.
+    // The join column is indexed because PostgreSQL does not index foreign keys on its own.
     @ElementCollection
+    @CollectionTable(name = "claim_documents", joinColumns = @JoinColumn(name = "claim_claim_id"),
+            indexes = @Index(name = "idx_claim_documents_claim", columnList = "claim_claim_id"))
+    @BatchSize(size = 100)
     @Column(name = "document")
     @Builder.Default
     private List<String> documents = new ArrayList<>();
@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,7 +15,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    // Serves the per-user keyset pages newest-first without a sort
+    @Index(name = "idx_notifications_user_timestamp", columnList = "user_id, timestamp DESC, id DESC"),
+    // Lets the retention sweep find old read rows without scanning the whole table
+    @Index(name = "idx_notifications_read_timestamp", columnList = "is_read, timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
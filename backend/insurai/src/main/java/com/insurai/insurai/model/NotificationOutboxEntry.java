@@ -0,0 +1,46 @@
+package com.insurai.insurai.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A notification waiting to be pushed. Written in the same transaction as the notification
+// itself and deleted by NotificationDispatcher once it has been published on the bus.
+@Entity
+@Table(name = "notification_outbox", indexes = {
+    @Index(name = "idx_notification_outbox_next_attempt", columnList = "next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationOutboxEntry {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "notification_id", nullable = false)
+    private String notificationId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+}
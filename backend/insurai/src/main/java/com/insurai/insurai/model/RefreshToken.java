@@ -0,0 +1,57 @@
+package com.insurai.insurai.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// An opaque refresh token, stored only as its SHA-256 hash. Every refresh uses a token up and issues
+// its successor in the same family; presenting a used token again revokes the whole family.
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_hash", columnList = "token_hash", unique = true),
+    @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+    @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false)
+    private String familyId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean revoked = false;
+}
@@ -0,0 +1,36 @@
+package com.insurai.insurai.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// An access token (by its jti) rejected before its own expiry; kept only until that expiry
+@Entity
+@Table(name = "revoked_access_tokens", indexes = {
+    @Index(name = "idx_revoked_access_tokens_revoked_at", columnList = "revoked_at"),
+    @Index(name = "idx_revoked_access_tokens_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedAccessToken {
+
+    @Id
+    @Column(name = "token_id", nullable = false)
+    private String tokenId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
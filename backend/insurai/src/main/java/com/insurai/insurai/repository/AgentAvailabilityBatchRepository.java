@@ -0,0 +1,91 @@
+package com.insurai.insurai.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.insurai.insurai.model.AgentAvailability;
+import com.insurai.insurai.model.AgentAvailabilityBreak;
+
+// JDBC batch path for bulk slot creation. Both tables use IDENTITY keys, which make Hibernate
+// insert row by row, so slots and breaks are written here as two batched statements instead.
+@Repository
+public class AgentAvailabilityBatchRepository {
+
+    private static final String INSERT_SLOT =
+            "INSERT INTO agent_availability (agent_id, availability_date, start_time, end_time, status, notes) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_BREAK =
+            "INSERT INTO agent_availability_breaks (availability_id, break_start, break_end) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AgentAvailabilityBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts the slots and their breaks, assigning the generated ids back onto the entities
+    public void insertAll(List<AgentAvailability> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SLOT, new String[] {"availability_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        AgentAvailability slot = slots.get(i);
+                        ps.setString(1, slot.getAgentId());
+                        ps.setDate(2, Date.valueOf(slot.getAvailabilityDate()));
+                        ps.setTime(3, Time.valueOf(slot.getStartTime()));
+                        ps.setTime(4, Time.valueOf(slot.getEndTime()));
+                        ps.setString(5, slot.getStatus());
+                        ps.setString(6, slot.getNotes());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return slots.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<AgentAvailabilityBreak> breaks = new ArrayList<>();
+        for (int i = 0; i < slots.size(); i++) {
+            AgentAvailability slot = slots.get(i);
+            slot.setAvailabilityId(((Number) keys.get(i).values().iterator().next()).intValue());
+            if (slot.getBreaks() != null) {
+                breaks.addAll(slot.getBreaks());
+            }
+        }
+        if (breaks.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_BREAK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AgentAvailabilityBreak brk = breaks.get(i);
+                ps.setInt(1, brk.getAvailability().getAvailabilityId());
+                ps.setTime(2, Time.valueOf(brk.getBreakStart()));
+                ps.setTime(3, Time.valueOf(brk.getBreakEnd()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return breaks.size();
+            }
+        });
+    }
+}
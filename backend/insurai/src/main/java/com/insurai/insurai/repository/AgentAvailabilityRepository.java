@@ -1,15 +1,64 @@
 package com.insurai.insurai.repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.insurai.insurai.dto.OnlineAgentDTO;
 import com.insurai.insurai.model.AgentAvailability;
+import com.insurai.insurai.model.UserCategory;
 
 @Repository
 public interface AgentAvailabilityRepository extends JpaRepository<AgentAvailability, Integer> {
     List<AgentAvailability> findByAgentId(String agentId);
-    List<AgentAvailability> findByStatus(String status);
     List<AgentAvailability> findByAgentIdAndStatus(String agentId, String status);
+
+    @Query("SELECT DISTINCT a FROM AgentAvailability a LEFT JOIN FETCH a.breaks " +
+           "WHERE a.status = :status AND a.availabilityDate >= :from")
+    List<AgentAvailability> findWithBreaksByStatusFrom(@Param("status") String status, @Param("from") LocalDate from);
+
+    @Query("SELECT a.availabilityId FROM AgentAvailability a " +
+           "WHERE a.status = 'Available' AND a.availabilityDate < :today ORDER BY a.availabilityDate")
+    List<Integer> findExpiredSlotIds(@Param("today") LocalDate today, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE AgentAvailability a SET a.status = 'Expired' WHERE a.availabilityId IN :ids AND a.status = 'Available'")
+    int expireSlots(@Param("ids") List<Integer> ids);
+
+    @Query("SELECT a FROM AgentAvailability a WHERE a.agentId = :agentId AND a.status = :status " +
+           "AND (:from IS NULL OR a.availabilityDate >= :from) " +
+           "AND (:to IS NULL OR a.availabilityDate <= :to)")
+    List<AgentAvailability> findByAgentIdAndStatusBetweenDates(@Param("agentId") String agentId,
+                                                              @Param("status") String status,
+                                                              @Param("from") LocalDate from,
+                                                              @Param("to") LocalDate to,
+                                                              Pageable pageable);
+
+    @Query("SELECT a.status FROM AgentAvailability a WHERE a.availabilityId = :id")
+    Optional<String> findStatusById(@Param("id") Integer id);
+
+    // Compare-and-set on status so only one concurrent booking can win the slot
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AgentAvailability a SET a.status = 'Booked', a.userId = :userId " +
+           "WHERE a.availabilityId = :id AND a.status = 'Available'")
+    int bookIfAvailable(@Param("id") Integer id, @Param("userId") String userId);
+
+    // Joins the agent's user row in the same statement instead of one lookup per slot
+    @Query("SELECT new com.insurai.insurai.dto.OnlineAgentDTO(a.availabilityId, a.agentId, u.email, u.firstName, u.lastName, u.phone, u.category, a.availabilityDate, a.startTime, a.endTime) " +
+           "FROM AgentAvailability a LEFT JOIN User u ON u.id = a.agentId " +
+           "WHERE a.status = :status AND a.availabilityDate >= :today " +
+           "AND (:date IS NULL OR a.availabilityDate = :date) " +
+           "AND (:category IS NULL OR u.category = :category) " +
+           "ORDER BY a.availabilityDate, a.startTime")
+    List<OnlineAgentDTO> findOnlineAgents(@Param("status") String status,
+                                          @Param("today") LocalDate today,
+                                          @Param("date") LocalDate date,
+                                          @Param("category") UserCategory category);
 }
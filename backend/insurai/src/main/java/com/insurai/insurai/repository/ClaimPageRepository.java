@@ -0,0 +1,14 @@
+package com.insurai.insurai.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Paged claims listing, built as a query per combination of filters (see ClaimPageRepositoryImpl)
+public interface ClaimPageRepository {
+
+    // Keyset page of claim ids over (dateFiled, claimId) newest-first; every filter is optional. Ids only,
+    // because a fetch join of the documents collection cannot be limited in SQL. The cursor is the
+    // (dateFiled, claimId) of the previous page's last row, or null for the first page.
+    List<String> findPageIds(String status, String claimType, String policyId, LocalDate filedFrom, LocalDate filedTo,
+                             Double minAmount, Double maxAmount, LocalDate cursorDate, String cursorId, int limit);
+}
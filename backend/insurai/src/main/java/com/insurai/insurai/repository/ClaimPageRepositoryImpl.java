@@ -0,0 +1,70 @@
+package com.insurai.insurai.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.insurai.insurai.model.Claim;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// Only the filters that are set become predicates. A single query with "(:p IS NULL OR col = :p)" for each
+// one is planned once for every combination, so PostgreSQL cannot pick idx_claims_status_date_filed or
+// idx_claims_policy_date_filed from it; here status and policy filters reach the planner as plain equalities.
+class ClaimPageRepositoryImpl implements ClaimPageRepository {
+
+    private final EntityManager entityManager;
+
+    ClaimPageRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<String> findPageIds(String status, String claimType, String policyId, LocalDate filedFrom, LocalDate filedTo,
+                                    Double minAmount, Double maxAmount, LocalDate cursorDate, String cursorId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<Claim> claim = query.from(Claim.class);
+        Path<LocalDate> dateFiled = claim.get("dateFiled");
+        Path<String> claimId = claim.get("claimId");
+        Path<Double> amount = claim.get("amount");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (status != null) {
+            predicates.add(cb.equal(claim.get("status"), status));
+        }
+        if (claimType != null) {
+            predicates.add(cb.equal(claim.get("claimType"), claimType));
+        }
+        if (policyId != null) {
+            predicates.add(cb.equal(claim.get("policyId"), policyId));
+        }
+        if (filedFrom != null) {
+            predicates.add(cb.greaterThanOrEqualTo(dateFiled, filedFrom));
+        }
+        if (filedTo != null) {
+            predicates.add(cb.lessThanOrEqualTo(dateFiled, filedTo));
+        }
+        if (minAmount != null) {
+            predicates.add(cb.greaterThanOrEqualTo(amount, minAmount));
+        }
+        if (maxAmount != null) {
+            predicates.add(cb.lessThanOrEqualTo(amount, maxAmount));
+        }
+        if (cursorDate != null) {
+            // (dateFiled, claimId) < (cursorDate, cursorId), with the leading <= as the index range bound
+            predicates.add(cb.lessThanOrEqualTo(dateFiled, cursorDate));
+            predicates.add(cb.or(cb.lessThan(dateFiled, cursorDate), cb.lessThan(claimId, cursorId)));
+        }
+
+        query.select(claimId)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(dateFiled), cb.desc(claimId));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
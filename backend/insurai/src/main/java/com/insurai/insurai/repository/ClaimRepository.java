@@ -1,14 +1,40 @@
 package com.insurai.insurai.repository;
 
 import com.insurai.insurai.model.Claim;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ClaimRepository extends JpaRepository<Claim, String> {
+public interface ClaimRepository extends JpaRepository<Claim, String>, ClaimPageRepository {
     List<Claim> findByUserId(String userId);
     List<Claim> findByPolicyId(String policyId);
     List<Claim> findByStatus(String status);
+
+    // Loads a page's claims together with all of their documents in one statement
+    @Query("SELECT DISTINCT c FROM Claim c LEFT JOIN FETCH c.documents WHERE c.claimId IN :ids")
+    List<Claim> findWithDocumentsByClaimIdIn(@Param("ids") Collection<String> ids);
+
+    // Locks the claims of a bulk transition so none changes between its check and the UPDATE. Rows are
+    // locked in claimId order so that two overlapping bulk updates cannot deadlock on each other.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Claim c WHERE c.claimId IN :ids ORDER BY c.claimId")
+    List<Claim> findAllForUpdate(@Param("ids") Collection<String> ids);
+
+    // Locks a single claim for a status check followed by its update
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Claim c WHERE c.claimId = :id")
+    Optional<Claim> findByIdForUpdate(@Param("id") String id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Claim c SET c.status = :status WHERE c.claimId IN :ids")
+    int updateStatus(@Param("ids") Collection<String> ids, @Param("status") String status);
 }
@@ -0,0 +1,21 @@
+package com.insurai.insurai.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.insurai.insurai.model.NotificationOutboxEntry;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, String> {
+
+    // Rows another node is dispatching stay locked until its transaction ends and are skipped, so
+    // concurrent drains split the outbox instead of publishing the same rows twice
+    @Query(value = "SELECT * FROM notification_outbox WHERE next_attempt_at <= :now "
+            + "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutboxEntry> lockDueEntries(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -1,8 +1,13 @@
 package com.insurai.insurai.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.insurai.insurai.model.Notification;
@@ -13,4 +18,53 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
     List<Notification> findByUserIdOrderByTimestampDesc(String userId);
 
     List<Notification> findByUserIdAndReadFalseOrderByTimestampDesc(String userId);
+
+    // Keyset pages over (timestamp, id) newest-first, read straight off idx_notifications_user_timestamp.
+    // The id breaks ties between equal timestamps; the constant userId leads the ORDER BY so planners
+    // that only match full index prefixes (H2) also skip the sort.
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId " +
+           "ORDER BY n.userId, n.timestamp DESC, n.id DESC")
+    List<Notification> findFirstPage(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId " +
+           "AND (n.timestamp, n.id) < (:timestamp, :id) " +
+           "ORDER BY n.userId, n.timestamp DESC, n.id DESC")
+    List<Notification> findPageBefore(@Param("userId") String userId,
+                                      @Param("timestamp") LocalDateTime timestamp,
+                                      @Param("id") String id,
+                                      Pageable pageable);
+
+    long countByUserIdAndReadFalse(String userId);
+
+    // Only flips unread rows, so the return value is exactly how many became read
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true WHERE n.id = :id AND n.read = false")
+    int markReadIfUnread(@Param("id") String id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true WHERE n.userId = :userId AND n.read = false")
+    int markAllRead(@Param("userId") String userId);
+
+    // Same (timestamp, id) order as the pages, so rows sharing the bound's timestamp but listed after it stay unread
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true " +
+           "WHERE n.userId = :userId AND n.read = false AND (n.timestamp, n.id) <= (:timestamp, :id)")
+    int markReadUpTo(@Param("userId") String userId, @Param("timestamp") LocalDateTime timestamp, @Param("id") String id);
+
+    // Rows after a (timestamp, id) position, newest first; used to catch up reconnecting clients
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId " +
+           "AND (n.timestamp, n.id) > (:timestamp, :id) " +
+           "ORDER BY n.userId, n.timestamp DESC, n.id DESC")
+    List<Notification> findNewerThan(@Param("userId") String userId,
+                                     @Param("timestamp") LocalDateTime timestamp,
+                                     @Param("id") String id,
+                                     Pageable pageable);
+
+    // Oldest first so each retention batch fills archive files in timestamp order
+    @Query("SELECT n FROM Notification n WHERE n.read = true AND n.timestamp < :cutoff ORDER BY n.timestamp, n.id")
+    List<Notification> findArchivable(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND n.read = true")
+    int deleteArchived(@Param("ids") List<String> ids);
 }
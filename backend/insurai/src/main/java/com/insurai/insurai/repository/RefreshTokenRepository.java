@@ -0,0 +1,31 @@
+package com.insurai.insurai.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.insurai.insurai.model.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Claims the token for one refresh; 0 means it was already used or revoked, possibly a moment ago
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usedAt = :now WHERE r.id = :id AND r.usedAt IS NULL AND r.revoked = false")
+    int markUsed(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
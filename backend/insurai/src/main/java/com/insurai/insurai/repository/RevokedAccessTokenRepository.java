@@ -0,0 +1,26 @@
+package com.insurai.insurai.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.insurai.insurai.model.RevokedAccessToken;
+
+@Repository
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+
+    List<RevokedAccessToken> findByExpiresAtAfter(LocalDateTime now);
+
+    List<RevokedAccessToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime since, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedAccessToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -4,6 +4,10 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.insurai.insurai.model.User;
 import com.insurai.insurai.model.UserCategory;
@@ -12,4 +16,12 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmailAndCategory(String email, UserCategory category);
     Optional<User> findByEmail(String email);
     List<User> findByCategoryIn(List<UserCategory> categories);
+
+    @Query("SELECT u.id FROM User u WHERE u.category IN :categories")
+    List<String> findIdsByCategoryIn(@Param("categories") List<UserCategory> categories);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") String id, @Param("password") String password);
 }
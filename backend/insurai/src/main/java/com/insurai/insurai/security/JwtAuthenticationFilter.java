@@ -2,15 +2,21 @@ package com.insurai.insurai.security;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.insurai.insurai.service.UserDetailsServiceImpl;
 import com.insurai.insurai.util.JwtUtil;
+import com.insurai.insurai.util.VerifiedToken;
+
+import io.jsonwebtoken.JwtException;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,12 +26,25 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/api/notifications/stream";
+
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserPrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
+    private final boolean claimsOnly;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    // auth-mode "claims" builds the principal from the verified token alone; "database" also requires
+    // the user to still exist, looked up through the principal cache
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserPrincipalCache principalCache, TokenRevocationList revocationList,
+                                   @Value("${security.jwt.auth-mode:claims}") String authMode) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.claimsOnly = switch (authMode) {
+            case "claims" -> true;
+            case "database" -> false;
+            default -> throw new IllegalArgumentException("security.jwt.auth-mode must be claims or database: " + authMode);
+        };
     }
 
     @Override
@@ -40,20 +59,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwt = authHeader.substring(7);
+        } else if (request.getRequestURI().equals(STREAM_PATH) && request.getParameter("token") != null) {
+            // EventSource cannot set headers, so the notification stream also takes the JWT as a query parameter
+            jwt = request.getParameter("token");
+        } else {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtUtil.extractUsername(jwt);
+        final VerifiedToken verifiedToken;
+        try {
+            verifiedToken = jwtUtil.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid or expired token: continue unauthenticated and let authorization reject the request
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (revocationList.isRevoked(verifiedToken.tokenId())) {
+            // Logged out before expiry; answered in memory, like the signature check
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final String username = verifiedToken.username();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = claimsOnly ? principalFromClaims(verifiedToken) : loadPrincipal(username);
 
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -62,4 +97,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    private static UserDetails principalFromClaims(VerifiedToken verifiedToken) {
+        return new User(verifiedToken.username(), "", UserDetailsServiceImpl.authoritiesFor(verifiedToken.category()));
+    }
+
+    private UserDetails loadPrincipal(String username) {
+        try {
+            return principalCache.load(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 }
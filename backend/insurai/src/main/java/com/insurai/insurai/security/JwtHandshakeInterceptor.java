@@ -0,0 +1,69 @@
+package com.insurai.insurai.security;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.insurai.insurai.model.User;
+import com.insurai.insurai.repository.UserRepository;
+import com.insurai.insurai.util.JwtUtil;
+import com.insurai.insurai.util.VerifiedToken;
+
+// Browsers cannot set headers on a WebSocket upgrade, so the JWT is accepted either as a
+// Bearer header or as a "token" query parameter and resolved to the owning user id.
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+    private final TokenRevocationList revocationList;
+
+    public JwtHandshakeInterceptor(JwtUtil jwtUtil, UserRepository userRepository, TokenRevocationList revocationList) {
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        this.revocationList = revocationList;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = resolveToken(request);
+        if (token != null) {
+            try {
+                VerifiedToken verified = jwtUtil.verify(token);
+                if (verified.username() != null && !revocationList.isRevoked(verified.tokenId())) {
+                    User user = userRepository.findByEmail(verified.username()).orElse(null);
+                    if (user != null) {
+                        attributes.put(USER_ID_ATTRIBUTE, user.getId());
+                        return true;
+                    }
+                }
+            } catch (Exception e) {
+                // Invalid or expired token, reject below
+            }
+        }
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private static String resolveToken(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    }
+}
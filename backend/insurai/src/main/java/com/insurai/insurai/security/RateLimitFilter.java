@@ -0,0 +1,106 @@
+package com.insurai.insurai.security;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.insurai.insurai.util.JwtUtil;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Token-bucket limits for the unauthenticated, expensive routes (security.rate-limit.routes, e.g.
+// /api/auth/login=20 for 20 requests per minute with bursts of up to 20). Every request to a limited
+// route spends a token from its client IP's bucket and, when it carries a valid bearer token, one from
+// its user's bucket as well. Other paths pass through after a single map lookup.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String TOO_MANY_REQUESTS_BODY = "{\"error\":\"Too many requests, please retry later\"}";
+
+    private final JwtUtil jwtUtil;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucketLimiter> limitersByPath;
+
+    public RateLimitFilter(JwtUtil jwtUtil, MeterRegistry meterRegistry,
+                           @Value("${security.rate-limit.routes:/api/auth/login=20,/api/auth/refresh=60,/api/voice-query=30}") String routes,
+                           @Value("${security.rate-limit.max-keys:100000}") int maxKeys) {
+        this.jwtUtil = jwtUtil;
+        this.meterRegistry = meterRegistry;
+        this.limitersByPath = parseRoutes(routes, maxKeys);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        TokenBucketLimiter limiter = limitersByPath.get(path);
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // The remote address is the client unless server.forward-headers-strategy says to trust a proxy
+        long waitNanos = limiter.tryAcquire("ip:" + request.getRemoteAddr());
+        if (waitNanos == 0) {
+            String user = bearerUser(request);
+            if (user != null) {
+                waitNanos = limiter.tryAcquire("user:" + user);
+            }
+        }
+        if (waitNanos > 0) {
+            meterRegistry.counter("security.rate-limit.rejected", "route", path).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(TOO_MANY_REQUESTS_BODY);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Buckets that have refilled completely carry no state worth keeping
+    @Scheduled(fixedDelayString = "${security.rate-limit.evict-ms:10000}")
+    public void evictIdle() {
+        limitersByPath.values().forEach(TokenBucketLimiter::evictIdle);
+    }
+
+    private String bearerUser(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return jwtUtil.verify(authHeader.substring(7)).username();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, TokenBucketLimiter> parseRoutes(String routes, int maxKeys) {
+        Map<String, TokenBucketLimiter> parsed = new HashMap<>();
+        for (String entry : routes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid rate limit route: " + entry);
+            }
+            parsed.put(parts[0].trim(), new TokenBucketLimiter(Integer.parseInt(parts[1].trim()), maxKeys, System::nanoTime));
+        }
+        return parsed;
+    }
+}
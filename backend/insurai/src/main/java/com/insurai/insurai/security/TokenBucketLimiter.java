@@ -0,0 +1,67 @@
+package com.insurai.insurai.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Per-key token buckets of requestsPerMinute tokens, refilled continuously. Each bucket is a single
+// AtomicLong holding its theoretical arrival time (the GCRA form of a token bucket), updated with CAS,
+// so concurrent requests never lock. A bucket whose arrival time has passed is full and therefore
+// indistinguishable from a new one, which is what lets evictIdle drop it. Past maxKeys, unseen keys
+// share one overflow bucket until eviction makes room, so a flood of fresh keys cannot grow the map.
+class TokenBucketLimiter {
+
+    private static final String OVERFLOW_KEY = "";
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    TokenBucketLimiter(int requestsPerMinute, int maxKeys, LongSupplier nanoClock) {
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.burstNanos = intervalNanos * (requestsPerMinute - 1);
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    // Takes a token for key; returns 0 when allowed, otherwise the nanoseconds until one is available
+    long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucketFor(key, now);
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+            if (start - now > burstNanos) {
+                return start - now - burstNanos;
+            }
+            if (bucket.compareAndSet(arrival, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketFor(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            return buckets.computeIfAbsent(OVERFLOW_KEY, k -> new AtomicLong(now));
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+}
@@ -0,0 +1,180 @@
+package com.insurai.insurai.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.insurai.insurai.model.RevokedAccessToken;
+import com.insurai.insurai.repository.RevokedAccessTokenRepository;
+
+// Access tokens revoked before their exp, checked on every authenticated request without a database
+// round-trip: a Bloom filter answers the common "never revoked" case from a few bit reads, and only
+// its hits are confirmed against the exact set. Entries leave once the token would have expired anyway.
+// The table is the source of truth: it is loaded at startup and polled for other nodes' revocations.
+@Component
+public class TokenRevocationList {
+
+    // Revocations committed just before the previous poll may carry an earlier revoked_at, so polls overlap
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedAccessTokenRepository repository;
+    private final int expectedEntries;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom;
+    private volatile LocalDateTime lastSync;
+
+    public TokenRevocationList(RevokedAccessTokenRepository repository,
+                               @Value("${security.revocation.expected-entries:10000}") int expectedEntries) {
+        this.repository = repository;
+        this.expectedEntries = expectedEntries;
+        this.bloom = new BloomFilter(expectedEntries);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        revoked.clear();
+        for (RevokedAccessToken token : repository.findByExpiresAtAfter(now)) {
+            revoked.put(token.getTokenId(), toInstant(token.getExpiresAt()));
+        }
+        lastSync = now;
+        rebuildFilter();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && bloom.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        repository.save(RevokedAccessToken.builder()
+                .tokenId(tokenId)
+                .revokedAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .build());
+        add(tokenId, expiresAt);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // Picks up tokens revoked through other nodes sharing the database
+    @Scheduled(initialDelayString = "${security.revocation.sync-ms:5000}", fixedDelayString = "${security.revocation.sync-ms:5000}")
+    public void sync() {
+        LocalDateTime since = lastSync;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (RevokedAccessToken token : repository.findByRevokedAtAfterAndExpiresAtAfter(since.minus(SYNC_OVERLAP), now)) {
+            add(token.getTokenId(), toInstant(token.getExpiresAt()));
+        }
+        lastSync = now;
+    }
+
+    // Forgets expired revocations; a Bloom filter cannot delete, so it is rebuilt from what remains
+    @Scheduled(initialDelayString = "${security.revocation.purge-ms:60000}", fixedDelayString = "${security.revocation.purge-ms:60000}")
+    public void purgeExpired() {
+        repository.deleteExpired(LocalDateTime.now());
+        Instant now = Instant.now();
+        synchronized (this) {
+            if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+                rebuildFilter();
+            }
+        }
+    }
+
+    private synchronized void add(String tokenId, Instant expiresAt) {
+        if (revoked.putIfAbsent(tokenId, expiresAt) != null) {
+            return;
+        }
+        if (revoked.size() > bloom.capacity) {
+            // Past its sizing the false-positive rate climbs, so grow instead
+            rebuildFilter();
+        } else {
+            bloom.add(tokenId);
+        }
+    }
+
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2));
+        revoked.keySet().forEach(rebuilt::add);
+        bloom = rebuilt;
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    // Fixed-size Bloom filter over a lock-free bit array, sized for about 1% false positives at capacity
+    // (9.6 bits and 7 probes per entry); probes come from two 64-bit hashes combined as h1 + i * h2
+    static final class BloomFilter {
+
+        private static final int PROBES = 7;
+
+        private final int capacity;
+        private final long bitCount;
+        private final AtomicLongArray words;
+
+        BloomFilter(int capacity) {
+            this.capacity = Math.max(capacity, 1);
+            long bits = (long) Math.ceil(this.capacity * 9.6);
+            this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+            this.bitCount = (long) words.length() << 6;
+        }
+
+        void add(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word;
+                do {
+                    word = words.get(index);
+                } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the chars, then finalized so that similar ids spread across the array
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h = (h ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long h) {
+            h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+            h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return h ^ (h >>> 33);
+        }
+    }
+}
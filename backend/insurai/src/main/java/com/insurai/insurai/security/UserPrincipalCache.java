@@ -0,0 +1,86 @@
+package com.insurai.insurai.security;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+// Principals loaded from the database for the "database" JWT auth mode. Entries live for ttl and the
+// map holds at most max-size of them; anything that changes a user's email, password or category must
+// call invalidate so the next request reloads it.
+@Component
+public class UserPrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final ConcurrentHashMap<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+
+    public UserPrincipalCache(UserDetailsService userDetailsService,
+                              @Value("${security.jwt.principal-cache.ttl-ms:60000}") long ttlMillis,
+                              @Value("${security.jwt.principal-cache.max-size:10000}") int maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+    }
+
+    public UserDetails load(String email) {
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = principals.get(email);
+        if (cached != null && !cached.isExpired(now, ttlMillis)) {
+            return cached.userDetails;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        if (ttlMillis > 0) {
+            makeRoom();
+            principals.put(email, new CachedPrincipal(userDetails, now));
+        }
+        return userDetails;
+    }
+
+    public void invalidate(String email) {
+        principals.remove(email);
+    }
+
+    public void invalidateAll() {
+        principals.clear();
+    }
+
+    @Scheduled(initialDelayString = "${security.jwt.principal-cache.ttl-ms:60000}", fixedDelayString = "${security.jwt.principal-cache.ttl-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        principals.values().removeIf(cached -> cached.isExpired(now, ttlMillis));
+    }
+
+    // Drops expired entries first and then arbitrary ones; a full cache only costs extra lookups
+    private void makeRoom() {
+        if (principals.size() < maxSize) {
+            return;
+        }
+        evictExpired();
+        Iterator<String> keys = principals.keySet().iterator();
+        while (principals.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static final class CachedPrincipal {
+
+        private final UserDetails userDetails;
+        private final long loadedAt;
+
+        private CachedPrincipal(UserDetails userDetails, long loadedAt) {
+            this.userDetails = userDetails;
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isExpired(long now, long ttlMillis) {
+            return now - loadedAt >= ttlMillis;
+        }
+    }
+}
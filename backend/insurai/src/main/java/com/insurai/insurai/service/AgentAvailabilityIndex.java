@@ -0,0 +1,351 @@
+package com.insurai.insurai.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.insurai.insurai.dto.FreeWindowDTO;
+import com.insurai.insurai.model.AgentAvailability;
+import com.insurai.insurai.model.AgentAvailabilityBreak;
+import com.insurai.insurai.repository.AgentAvailabilityRepository;
+
+// In-memory view of every agent's free time: Available slots with their breaks cut out, merged into
+// non-overlapping windows per agent. Windows never cross midnight, so they are also filed by day in an
+// interval structure that answers "who is free for all of [start, end]" without visiting every agent.
+@Component
+public class AgentAvailabilityIndex {
+
+    private final AgentAvailabilityRepository availabilityRepository;
+    private final Map<String, AgentWindows> agents = new ConcurrentSkipListMap<>();
+    private final Map<Integer, String> slotOwners = new ConcurrentHashMap<>();
+    private final Map<Long, DayWindows> days = new ConcurrentHashMap<>();
+
+    public AgentAvailabilityIndex(AgentAvailabilityRepository availabilityRepository) {
+        this.availabilityRepository = availabilityRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        agents.clear();
+        slotOwners.clear();
+        days.clear();
+        for (AgentAvailability slot : availabilityRepository.findWithBreaksByStatusFrom("Available", LocalDate.now())) {
+            add(slot);
+        }
+    }
+
+    // Applies the change once the surrounding transaction commits, or immediately outside one
+    public void slotAvailableAfterCommit(AgentAvailability slot) {
+        afterCommit(() -> add(slot));
+    }
+
+    public void slotRemovedAfterCommit(Integer availabilityId) {
+        afterCommit(() -> remove(availabilityId));
+    }
+
+    public void add(AgentAvailability slot) {
+        if (slot.getAvailabilityId() == null || !"Available".equals(slot.getStatus())) {
+            return;
+        }
+        List<Window> windows = freeWindows(slot);
+        slotOwners.put(slot.getAvailabilityId(), slot.getAgentId());
+        agents.computeIfAbsent(slot.getAgentId(), AgentWindows::new).put(slot.getAvailabilityId(), windows);
+    }
+
+    public void remove(Integer availabilityId) {
+        String agentId = slotOwners.remove(availabilityId);
+        if (agentId == null) {
+            return;
+        }
+        AgentWindows windows = agents.get(agentId);
+        if (windows != null) {
+            windows.remove(availabilityId);
+        }
+    }
+
+    public List<String> findFreeAgents(LocalDateTime start, LocalDateTime end) {
+        long startSeconds = toSeconds(start);
+        DayWindows day = days.get(Math.floorDiv(startSeconds, SECONDS_PER_DAY));
+        if (day == null) {
+            return new ArrayList<>();
+        }
+        List<String> free = day.snapshot().agentsCovering(startSeconds, toSeconds(end));
+        free.sort(null);
+        return free;
+    }
+
+    // Days that currently hold at least one free window
+    int dayCount() {
+        return days.size();
+    }
+
+    public FreeWindowDTO findNextFreeWindow(String agentId, LocalDateTime from, Duration minLength) {
+        AgentWindows windows = agents.get(agentId);
+        if (windows == null) {
+            return null;
+        }
+        Window next = windows.next(from, minLength);
+        return next == null ? null : new FreeWindowDTO(agentId, next.start, next.end);
+    }
+
+    private static List<Window> freeWindows(AgentAvailability slot) {
+        LocalDateTime cursor = slot.getAvailabilityDate().atTime(slot.getStartTime());
+        LocalDateTime slotEnd = slot.getAvailabilityDate().atTime(slot.getEndTime());
+        List<Window> windows = new ArrayList<>();
+        if (!slotEnd.isAfter(cursor)) {
+            return windows;
+        }
+        List<AgentAvailabilityBreak> breaks = slot.getBreaks() == null ? List.of() : new ArrayList<>(slot.getBreaks());
+        breaks.sort(Comparator.comparing(AgentAvailabilityBreak::getBreakStart));
+        for (AgentAvailabilityBreak brk : breaks) {
+            LocalDateTime breakStart = atDate(slot, brk.getBreakStart());
+            LocalDateTime breakEnd = atDate(slot, brk.getBreakEnd());
+            if (breakStart.isAfter(cursor)) {
+                windows.add(new Window(cursor, breakStart.isBefore(slotEnd) ? breakStart : slotEnd));
+            }
+            if (breakEnd.isAfter(cursor)) {
+                cursor = breakEnd;
+            }
+            if (!cursor.isBefore(slotEnd)) {
+                return windows;
+            }
+        }
+        windows.add(new Window(cursor, slotEnd));
+        return windows;
+    }
+
+    private static LocalDateTime atDate(AgentAvailability slot, LocalTime time) {
+        return slot.getAvailabilityDate().atTime(time);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private record Window(LocalDateTime start, LocalDateTime end) {}
+
+    // Merged windows packed as epoch-second arrays sorted by start; immutable once published
+    private record Snapshot(long[] starts, long[] ends) {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new long[0]);
+
+        int floor(long instant) {
+            return AgentAvailabilityIndex.floor(starts, instant);
+        }
+    }
+
+    // Writers rebuild the snapshot under the lock; readers use the published snapshot without locking
+    private final class AgentWindows {
+        private final String agentId;
+        private final Map<Integer, List<Window>> bySlot = new HashMap<>();
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+        AgentWindows(String agentId) {
+            this.agentId = agentId;
+        }
+
+        synchronized void put(Integer availabilityId, List<Window> windows) {
+            bySlot.put(availabilityId, windows);
+            remerge();
+        }
+
+        synchronized void remove(Integer availabilityId) {
+            if (bySlot.remove(availabilityId) != null) {
+                remerge();
+            }
+        }
+
+        Window next(LocalDateTime from, Duration minLength) {
+            Snapshot current = snapshot;
+            long fromSeconds = toSeconds(from);
+            long minSeconds = minLength.getSeconds();
+            int i = current.floor(fromSeconds);
+            if (i >= 0 && current.ends()[i] > fromSeconds && current.ends()[i] - fromSeconds >= minSeconds) {
+                return new Window(from, toDateTime(current.ends()[i]));
+            }
+            for (int j = i + 1; j < current.starts().length; j++) {
+                if (current.ends()[j] - current.starts()[j] >= minSeconds) {
+                    return new Window(toDateTime(current.starts()[j]), toDateTime(current.ends()[j]));
+                }
+            }
+            return null;
+        }
+
+        private void remerge() {
+            List<Window> all = new ArrayList<>();
+            bySlot.values().forEach(all::addAll);
+            all.sort(Comparator.comparing(Window::start));
+            long[] starts = new long[all.size()];
+            long[] ends = new long[all.size()];
+            int count = 0;
+            for (Window window : all) {
+                long start = toSeconds(window.start());
+                long end = toSeconds(window.end());
+                if (count > 0 && start <= ends[count - 1]) {
+                    ends[count - 1] = Math.max(ends[count - 1], end);
+                    continue;
+                }
+                starts[count] = start;
+                ends[count] = end;
+                count++;
+            }
+            Snapshot previous = snapshot;
+            snapshot = new Snapshot(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+            refileByDay(previous, snapshot);
+        }
+
+        // Replaces this agent's entries in every day index its old or new windows touch
+        private void refileByDay(Snapshot previous, Snapshot current) {
+            Map<Long, List<long[]>> byDay = new HashMap<>();
+            for (int i = 0; i < current.starts().length; i++) {
+                byDay.computeIfAbsent(Math.floorDiv(current.starts()[i], SECONDS_PER_DAY), d -> new ArrayList<>())
+                        .add(new long[] { current.starts()[i], current.ends()[i] });
+            }
+            for (long start : previous.starts()) {
+                long day = Math.floorDiv(start, SECONDS_PER_DAY);
+                if (!byDay.containsKey(day)) {
+                    days.computeIfPresent(day, (d, windows) -> windows.put(agentId, List.of()) ? null : windows);
+                }
+            }
+            byDay.forEach((day, windows) -> days.compute(day, (d, existing) -> {
+                DayWindows dayWindows = existing != null ? existing : new DayWindows();
+                return dayWindows.put(agentId, windows) ? null : dayWindows;
+            }));
+        }
+    }
+
+    // Every agent's windows on one day. Writes only drop the published snapshot; the next read rebuilds
+    // it once, so loading thousands of slots does not re-sort the day for each of them. Writes run inside
+    // days.compute, so a day left without windows (booked out, or expired by the sweeper) is removed from
+    // the map atomically with its last removal.
+    private static final class DayWindows {
+        private final Map<String, List<long[]>> byAgent = new HashMap<>();
+        private volatile DaySnapshot snapshot = DaySnapshot.EMPTY;
+
+        // Returns true when the day no longer holds any window
+        synchronized boolean put(String agentId, List<long[]> windows) {
+            if (windows.isEmpty()) {
+                byAgent.remove(agentId);
+            } else {
+                byAgent.put(agentId, windows);
+            }
+            snapshot = null;
+            return byAgent.isEmpty();
+        }
+
+        DaySnapshot snapshot() {
+            DaySnapshot current = snapshot;
+            return current != null ? current : rebuild();
+        }
+
+        private synchronized DaySnapshot rebuild() {
+            if (snapshot == null) {
+                snapshot = DaySnapshot.of(byAgent);
+            }
+            return snapshot;
+        }
+    }
+
+    // A day's windows sorted by start, with a max-end segment tree over them: a query takes the windows
+    // starting at or before its start and descends only into subtrees whose longest end reaches its end,
+    // so the cost grows with the number of free agents found, not the number of agents
+    private record DaySnapshot(long[] starts, long[] ends, String[] agentIds, long[] maxEnd, int leaves) {
+        static final DaySnapshot EMPTY = new DaySnapshot(new long[0], new long[0], new String[0], new long[2], 1);
+
+        static DaySnapshot of(Map<String, List<long[]>> byAgent) {
+            List<Map.Entry<String, long[]>> all = new ArrayList<>();
+            byAgent.forEach((agentId, windows) -> windows.forEach(window -> all.add(Map.entry(agentId, window))));
+            all.sort(Comparator.comparingLong(entry -> entry.getValue()[0]));
+            int n = all.size();
+            long[] starts = new long[n];
+            long[] ends = new long[n];
+            String[] agentIds = new String[n];
+            int leaves = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+            long[] maxEnd = new long[2 * leaves];
+            Arrays.fill(maxEnd, Long.MIN_VALUE);
+            for (int i = 0; i < n; i++) {
+                starts[i] = all.get(i).getValue()[0];
+                ends[i] = all.get(i).getValue()[1];
+                agentIds[i] = all.get(i).getKey();
+                maxEnd[leaves + i] = ends[i];
+            }
+            for (int node = leaves - 1; node >= 1; node--) {
+                maxEnd[node] = Math.max(maxEnd[2 * node], maxEnd[2 * node + 1]);
+            }
+            return new DaySnapshot(starts, ends, agentIds, maxEnd, leaves);
+        }
+
+        List<String> agentsCovering(long start, long end) {
+            List<String> found = new ArrayList<>();
+            int last = floor(starts, start);
+            if (last >= 0) {
+                collect(1, 0, leaves - 1, last, end, found);
+            }
+            return found;
+        }
+
+        private void collect(int node, int from, int to, int last, long end, List<String> found) {
+            if (from > last || maxEnd[node] < end) {
+                return;
+            }
+            if (from == to) {
+                found.add(agentIds[from]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            collect(2 * node, from, mid, last, end, found);
+            collect(2 * node + 1, mid + 1, to, last, end, found);
+        }
+    }
+
+    // Index of the last start at or before the given instant, or -1
+    private static int floor(long[] starts, long instant) {
+        int lo = 0;
+        int hi = starts.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= instant) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -1,33 +1,55 @@
 package com.insurai.insurai.service;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.insurai.insurai.dto.AgentAvailabilityRequest;
 import com.insurai.insurai.dto.BookedRequestDTO;
+import com.insurai.insurai.dto.FreeWindowDTO;
 import com.insurai.insurai.dto.OnlineAgentDTO;
+import com.insurai.insurai.dto.RecurringAvailabilityRequest;
 import com.insurai.insurai.model.AgentAvailability;
 import com.insurai.insurai.model.AgentAvailabilityBreak;
 import com.insurai.insurai.model.User;
 import com.insurai.insurai.model.UserCategory;
+import com.insurai.insurai.repository.AgentAvailabilityBatchRepository;
 import com.insurai.insurai.repository.AgentAvailabilityRepository;
 import com.insurai.insurai.repository.UserRepository;
 @Service
 public class AgentAvailabilityService {
 
+    private static final int MAX_RECURRING_DAYS = 366;
+
     private final AgentAvailabilityRepository availabilityRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final AgentAvailabilityIndex availabilityIndex;
+    private final AgentAvailabilityBatchRepository batchRepository;
 
     @Autowired
-    public AgentAvailabilityService(AgentAvailabilityRepository availabilityRepository, UserRepository userRepository, NotificationService notificationService) {
+    public AgentAvailabilityService(AgentAvailabilityRepository availabilityRepository, UserRepository userRepository, NotificationService notificationService, AgentAvailabilityIndex availabilityIndex, AgentAvailabilityBatchRepository batchRepository) {
         this.availabilityRepository = availabilityRepository;
+        this.batchRepository = batchRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.availabilityIndex = availabilityIndex;
     }
 
     @Transactional
@@ -52,88 +74,128 @@ public class AgentAvailabilityService {
             );
         }
 
-        return availabilityRepository.save(availability);
+        AgentAvailability saved = availabilityRepository.save(availability);
+        availabilityIndex.slotAvailableAfterCommit(saved);
+        return saved;
+    }
+
+    @Transactional
+    public List<AgentAvailability> saveRecurringAvailability(RecurringAvailabilityRequest request) {
+        if (request.getAgentId() == null || request.getStartDate() == null || request.getEndDate() == null
+                || request.getStartTime() == null || request.getEndTime() == null
+                || request.getDaysOfWeek() == null || request.getDaysOfWeek().isEmpty()) {
+            throw new IllegalArgumentException("agentId, startDate, endDate, daysOfWeek, startTime and endTime are required");
+        }
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new IllegalArgumentException("endTime must be after startTime");
+        }
+        if (request.getEndDate().isBefore(request.getStartDate())
+                || request.getStartDate().plusDays(MAX_RECURRING_DAYS - 1).isBefore(request.getEndDate())) {
+            throw new IllegalArgumentException("Schedule must span between 1 and " + MAX_RECURRING_DAYS + " days");
+        }
+
+        Set<DayOfWeek> days = EnumSet.copyOf(request.getDaysOfWeek());
+        List<AgentAvailability> slots = new ArrayList<>();
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
+            if (!days.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            AgentAvailability slot = new AgentAvailability();
+            slot.setAgentId(request.getAgentId());
+            slot.setAvailabilityDate(date);
+            slot.setStartTime(request.getStartTime());
+            slot.setEndTime(request.getEndTime());
+            slot.setStatus("Available");
+            slot.setNotes(request.getNotes());
+            List<AgentAvailabilityBreak> breaks = new ArrayList<>();
+            if (request.getBreaks() != null) {
+                for (AgentAvailabilityRequest.BreakRequest b : request.getBreaks()) {
+                    AgentAvailabilityBreak brk = new AgentAvailabilityBreak();
+                    brk.setBreakStart(b.getBreakStart());
+                    brk.setBreakEnd(b.getBreakEnd());
+                    brk.setAvailability(slot);
+                    breaks.add(brk);
+                }
+            }
+            slot.setBreaks(breaks);
+            slots.add(slot);
+        }
+
+        batchRepository.insertAll(slots);
+        slots.forEach(availabilityIndex::slotAvailableAfterCommit);
+        return slots;
     }
 
     public List<AgentAvailability> getAvailabilityByAgentId(String agentId) {
         return availabilityRepository.findByAgentId(agentId);
     }
 
-    public List<BookedRequestDTO> getBookedRequestsByAgentId(String agentId) {
+    public List<BookedRequestDTO> getBookedRequestsByAgentId(String agentId, LocalDate from, LocalDate to, int page, int size) {
         if (agentId == null || agentId.isEmpty()) {
             return List.of();
         }
-        List<AgentAvailability> bookedSlots = availabilityRepository.findByAgentIdAndStatus(agentId, "Booked");
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "availabilityDate", "startTime"));
+        List<AgentAvailability> bookedSlots = availabilityRepository.findByAgentIdAndStatusBetweenDates(agentId, "Booked", from, to, pageable);
+
+        // Resolve every distinct client on the page in a single lookup
+        Set<String> clientIds = bookedSlots.stream()
+                .map(AgentAvailability::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, User> clients = clientIds.isEmpty() ? Map.of()
+                : userRepository.findAllById(clientIds).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
         return bookedSlots.stream().map(slot -> {
             String clientName = "Unknown";
             String email = "N/A";
             String phone = "N/A";
             String clientId = slot.getUserId();
 
-            if (slot.getUserId() != null) {
-                User user = userRepository.findById(slot.getUserId()).orElse(null);
-                if (user != null) {
-                    clientName = user.getFirstName() + " " + user.getLastName();
-                    email = user.getEmail();
-                    phone = user.getPhone();
-                }
+            User user = clientId != null ? clients.get(clientId) : null;
+            if (user != null) {
+                clientName = user.getFirstName() + " " + user.getLastName();
+                email = user.getEmail();
+                phone = user.getPhone();
             }
 
-            BookedRequestDTO dto = new BookedRequestDTO();
-            dto.setAvailabilityId(slot.getAvailabilityId());
-            dto.setClientId(clientId);
-            dto.setClientName(clientName);
-            dto.setEmail(email);
-            dto.setPhone(phone);
-            dto.setDate(slot.getAvailabilityDate());
-            dto.setStartTime(slot.getStartTime());
-            dto.setEndTime(slot.getEndTime());
-            dto.setStatus(slot.getStatus());
-            return dto;
+            return new BookedRequestDTO(slot.getAvailabilityId(), clientId, clientName, email, phone,
+                    slot.getAvailabilityDate(), slot.getStartTime(), slot.getEndTime(), slot.getStatus());
         }).collect(Collectors.toList());
     }
 
-    public List<OnlineAgentDTO> getOnlineAgents() {
-        List<AgentAvailability> onlineAgents = availabilityRepository.findByStatus("Available");
-        System.out.println("DEBUG: Found " + onlineAgents.size() + " available agents");
-        return onlineAgents.stream().map(agent -> {
-            User user = userRepository.findById(agent.getAgentId()).orElse(null);
-            if (user == null) {
-                System.out.println("DEBUG: No user found for agentId: " + agent.getAgentId());
-            } else {
-                System.out.println("DEBUG: Found user " + user.getFirstName() + " " + user.getLastName() + " for agentId: " + agent.getAgentId());
-            }
-            OnlineAgentDTO dto = new OnlineAgentDTO();
-            dto.setId(agent.getAvailabilityId().toString());
-            dto.setAgentId(agent.getAgentId());
-            if (user != null && user.getCategory() == UserCategory.AGENT) {
-                dto.setEmail(user.getEmail());
-                dto.setFirstName(user.getFirstName());
-                dto.setLastName(user.getLastName());
-                dto.setPhone(user.getPhone());
-                dto.setFullName(user.getFirstName() + " " + user.getLastName());
-            } else {
-                dto.setFullName(agent.getAgentId());
-            }
-            dto.setAvailabilityDate(agent.getAvailabilityDate().toString());
-            dto.setStartTime(agent.getStartTime().toString());
-            dto.setEndTime(agent.getEndTime().toString());
-            return dto;
-        }).collect(Collectors.toList());
+    public List<OnlineAgentDTO> getOnlineAgents(LocalDate date, UserCategory category) {
+        return availabilityRepository.findOnlineAgents("Available", LocalDate.now(), date, category);
     }
 
-    public boolean bookSlot(Integer id, String userId) {
-        return availabilityRepository.findById(id)
-            .map(slot -> {
-                slot.setStatus("Booked");
-                slot.setUserId(userId);
-                availabilityRepository.save(slot);
-                // Notify user
-                notificationService.createNotification(userId, "APPOINTMENT_BOOKED", "Your appointment with agent has been booked for " + slot.getAvailabilityDate() + " from " + slot.getStartTime() + " to " + slot.getEndTime());
-                // Notify agent
-                notificationService.createNotification(slot.getAgentId(), "APPOINTMENT_BOOKED", "A new appointment has been booked for " + slot.getAvailabilityDate() + " from " + slot.getStartTime() + " to " + slot.getEndTime());
-                return true;
-            })
-            .orElse(false);
+    public List<String> findFreeAgents(LocalDateTime start, LocalDateTime end) {
+        return availabilityIndex.findFreeAgents(start, end);
+    }
+
+    public FreeWindowDTO findNextFreeWindow(String agentId, LocalDateTime from, Duration minLength) {
+        return availabilityIndex.findNextFreeWindow(agentId, from, minLength);
+    }
+
+    public enum BookingResult {
+        BOOKED,
+        NOT_FOUND,
+        ALREADY_BOOKED,
+        // Exists but is not open for booking, e.g. Expired
+        NOT_AVAILABLE
+    }
+
+    @Transactional
+    public BookingResult bookSlot(Integer id, String userId) {
+        if (availabilityRepository.bookIfAvailable(id, userId) == 0) {
+            return availabilityRepository.findStatusById(id)
+                    .map(status -> "Booked".equals(status) ? BookingResult.ALREADY_BOOKED : BookingResult.NOT_AVAILABLE)
+                    .orElse(BookingResult.NOT_FOUND);
+        }
+        availabilityIndex.slotRemovedAfterCommit(id);
+        AgentAvailability slot = availabilityRepository.findById(id).orElseThrow();
+        // Notify user
+        notificationService.createNotification(userId, "APPOINTMENT_BOOKED", "Your appointment with agent has been booked for " + slot.getAvailabilityDate() + " from " + slot.getStartTime() + " to " + slot.getEndTime());
+        // Notify agent
+        notificationService.createNotification(slot.getAgentId(), "APPOINTMENT_BOOKED", "A new appointment has been booked for " + slot.getAvailabilityDate() + " from " + slot.getStartTime() + " to " + slot.getEndTime());
+        return BookingResult.BOOKED;
     }
 }
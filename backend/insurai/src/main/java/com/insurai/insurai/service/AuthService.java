@@ -1,25 +1,37 @@
 package com.insurai.insurai.service;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.insurai.insurai.model.User;
 import com.insurai.insurai.model.UserCategory;
 import com.insurai.insurai.repository.UserRepository;
+import com.insurai.insurai.security.UserPrincipalCache;
 
 @Service
 public class AuthService {
     private final UserRepository userRepository;
     private final NotificationService notificationService;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final UserPrincipalCache principalCache;
+    private final PasswordEncoder passwordEncoder;
+    private final Executor loginExecutor;
 
-    public AuthService(UserRepository userRepository, NotificationService notificationService) {
+    public AuthService(UserRepository userRepository, NotificationService notificationService, UserPrincipalCache principalCache,
+                       PasswordEncoder passwordEncoder, @Qualifier("loginExecutor") Executor loginExecutor) {
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.principalCache = principalCache;
+        this.passwordEncoder = passwordEncoder;
+        this.loginExecutor = loginExecutor;
     }
 
+    @Transactional
     public User registerUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
@@ -29,15 +41,27 @@ public class AuthService {
         }
 
         User savedUser = userRepository.save(user);
+        principalCache.invalidate(savedUser.getEmail());
         // Send welcome notification
         notificationService.createNotification(savedUser.getId(), "WELCOME", "Welcome to InsurAI! Your account has been created successfully.");
         return savedUser;
     }
 
-    public Optional<User> loginUser(String email, String rawPassword, UserCategory category) {
+    // Runs the password check on the login executor; throws RejectedExecutionException when it is saturated
+    public CompletableFuture<Optional<User>> loginUser(String email, String rawPassword, UserCategory category) {
+        return CompletableFuture.supplyAsync(() -> checkCredentials(email, rawPassword, category), loginExecutor);
+    }
+
+    private Optional<User> checkCredentials(String email, String rawPassword, UserCategory category) {
         Optional<User> user = userRepository.findByEmailAndCategory(email, category);
 
         if (user.isPresent() && passwordEncoder.matches(rawPassword, user.get().getPassword())) {
+            // The raw password is only available here, so hashes from an older strength are replaced now
+            if (passwordEncoder.upgradeEncoding(user.get().getPassword())) {
+                user.get().setPassword(passwordEncoder.encode(rawPassword));
+                userRepository.updatePassword(user.get().getId(), user.get().getPassword());
+                principalCache.invalidate(email);
+            }
             return user;
         }
         return Optional.empty();
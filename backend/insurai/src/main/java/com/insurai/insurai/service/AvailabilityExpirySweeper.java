@@ -0,0 +1,79 @@
+package com.insurai.insurai.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurai.insurai.repository.AgentAvailabilityRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Moves Available slots from past dates to Expired in small batches, each in its own transaction,
+// so the hot "Available" queries only ever see today and future dates.
+@Component
+public class AvailabilityExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityExpirySweeper.class);
+
+    private final AgentAvailabilityRepository availabilityRepository;
+    private final AgentAvailabilityIndex availabilityIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Counter expiredRows;
+    private final DistributionSummary rowsPerSweep;
+
+    public AvailabilityExpirySweeper(AgentAvailabilityRepository availabilityRepository,
+                                     AgentAvailabilityIndex availabilityIndex,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${availability.expiry.batch-size:500}") int batchSize,
+                                     @Value("${availability.expiry.max-batches:20}") int maxBatches) {
+        this.availabilityRepository = availabilityRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.expiredRows = Counter.builder("availability.expiry.rows")
+                .description("Availability slots moved to Expired")
+                .register(meterRegistry);
+        this.rowsPerSweep = DistributionSummary.builder("availability.expiry.sweep.rows")
+                .description("Rows processed by each expiry sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${availability.expiry.initial-delay-ms:60000}",
+               fixedDelayString = "${availability.expiry.interval-ms:300000}")
+    public int sweep() {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Integer> ids = availabilityRepository.findExpiredSlotIds(today, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer updated = transactionTemplate.execute(status -> availabilityRepository.expireSlots(ids));
+            ids.forEach(availabilityIndex::remove);
+            total += updated != null ? updated : 0;
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        expiredRows.increment(total);
+        rowsPerSweep.record(total);
+        if (total > 0) {
+            log.info("Expired {} past availability slots", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,47 @@
+package com.insurai.insurai.service;
+
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurai.insurai.model.Notification;
+
+// Multi-node bus: notifications travel as JSON through a NotificationBroker shared by all nodes
+public class BrokerNotificationBus implements NotificationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(BrokerNotificationBus.class);
+
+    private final NotificationBroker broker;
+    private final ObjectMapper objectMapper;
+
+    public BrokerNotificationBus(NotificationBroker broker, ObjectMapper objectMapper) {
+        this.broker = broker;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(Notification notification) {
+        try {
+            broker.publish(objectMapper.writeValueAsString(notification));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize notification " + notification.getId(), e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Notification> subscriber) {
+        broker.listen(payload -> {
+            Notification notification;
+            try {
+                notification = objectMapper.readValue(payload, Notification.class);
+            } catch (JsonProcessingException e) {
+                log.warn("Ignoring unreadable notification bus message", e);
+                return;
+            }
+            subscriber.accept(notification);
+        });
+    }
+}
@@ -1,34 +1,73 @@
 package com.insurai.insurai.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.insurai.insurai.dto.ClaimPageDTO;
+import com.insurai.insurai.dto.ClaimStatusResultDTO;
 import com.insurai.insurai.model.Claim;
-import com.insurai.insurai.model.User;
 import com.insurai.insurai.model.UserCategory;
 import com.insurai.insurai.repository.ClaimRepository;
-import com.insurai.insurai.repository.UserRepository;
 
 @Service
 public class ClaimService {
 
+    // Statuses a claim may move to from each status; decisions are final, while a claim under review
+    // can go back to Pending when more information is needed
+    private static final Map<String, Set<String>> TRANSITIONS = Map.of(
+            "Pending", Set.of("Under Review", "Approved", "Rejected"),
+            "Under Review", Set.of("Pending", "Approved", "Rejected"),
+            "Approved", Set.of(),
+            "Rejected", Set.of());
+    // Keeps IN lists well under database bind-parameter limits
+    private static final int BULK_CHUNK_SIZE = 500;
+
     private final ClaimRepository claimRepository;
     private final NotificationService notificationService;
-    private final UserRepository userRepository;
+    private final NotificationFanoutService notificationFanoutService;
 
-    public ClaimService(ClaimRepository claimRepository, NotificationService notificationService, UserRepository userRepository) {
+    public ClaimService(ClaimRepository claimRepository, NotificationService notificationService, NotificationFanoutService notificationFanoutService) {
         this.claimRepository = claimRepository;
         this.notificationService = notificationService;
-        this.userRepository = userRepository;
+        this.notificationFanoutService = notificationFanoutService;
     }
 
     public List<Claim> getAllClaims() {
         return claimRepository.findAll();
     }
 
+    // Two statements per page whatever its size: the matching ids, then those claims with their documents.
+    // Cursor is opaque to clients: the (dateFiled, claimId) of the last claim of the previous page.
+    @Transactional(readOnly = true)
+    public ClaimPageDTO getClaimPage(String status, String claimType, String policyId, LocalDate filedFrom, LocalDate filedTo,
+                                     Double minAmount, Double maxAmount, String cursor, int limit) {
+        String[] key = cursor == null ? new String[] { null, null } : decodeCursor(cursor);
+        List<String> ids = claimRepository.findPageIds(status, claimType, policyId, filedFrom, filedTo, minAmount, maxAmount,
+                key[0] == null ? null : LocalDate.parse(key[0]), key[1], limit);
+        if (ids.isEmpty()) {
+            return new ClaimPageDTO(List.of(), null);
+        }
+        Map<String, Claim> claims = claimRepository.findWithDocumentsByClaimIdIn(ids).stream()
+                .collect(Collectors.toMap(Claim::getClaimId, Function.identity()));
+        List<Claim> items = ids.stream().map(claims::get).toList();
+        String nextCursor = items.size() < limit ? null : encodeCursor(items.get(items.size() - 1));
+        return new ClaimPageDTO(items, nextCursor);
+    }
+
     public List<Claim> getClaimsByUserId(String userId) {
         return claimRepository.findByUserId(userId);
     }
@@ -38,20 +77,24 @@ public class ClaimService {
         claim.setDateFiled(LocalDate.now());
         Claim savedClaim = claimRepository.save(claim);
 
-        // Notify all agents and admins about the new claim
-        List<User> agentsAndAdmins = userRepository.findByCategoryIn(List.of(UserCategory.AGENT, UserCategory.ADMIN));
-        for (User user : agentsAndAdmins) {
-            notificationService.createNotification(user.getId(), "NEW_CLAIM", "A new claim has been submitted for review: " + savedClaim.getDescription());
-        }
+        // Notify all agents and admins about the new claim, off the request thread
+        notificationFanoutService.notifyCategories(List.of(UserCategory.AGENT, UserCategory.ADMIN),
+                "NEW_CLAIM", "A new claim has been submitted for review: " + savedClaim.getDescription());
 
         return savedClaim;
     }
 
+    // Status changes follow the same TRANSITIONS as the bulk path; an invalid one is rejected with
+    // IllegalArgumentException and nothing is saved
+    @Transactional
     public Claim updateClaim(String claimId, Claim claim) {
-        Optional<Claim> existingClaim = claimRepository.findById(claimId);
+        Optional<Claim> existingClaim = claimRepository.findByIdForUpdate(claimId);
         if (existingClaim.isPresent()) {
             Claim updated = existingClaim.get();
             String oldStatus = updated.getStatus();
+            if (!oldStatus.equals(claim.getStatus()) && !canTransition(oldStatus, claim.getStatus())) {
+                throw new IllegalArgumentException("Cannot move a claim from " + oldStatus + " to " + claim.getStatus());
+            }
             updated.setPolicyId(claim.getPolicyId());
             updated.setUserId(claim.getUserId());
             updated.setDescription(claim.getDescription());
@@ -68,7 +111,87 @@ public class ClaimService {
         return null;
     }
 
+    public enum TransitionOutcome {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND,
+        INVALID_TRANSITION
+    }
+
+    // Moves many claims to one status in a single transaction: a locking SELECT and an UPDATE per chunk
+    // of ids, then one batched insert of owner notifications. Claims that are missing or cannot make the
+    // transition are reported and left alone without failing the rest.
+    @Transactional
+    public List<ClaimStatusResultDTO> updateClaimStatuses(List<String> claimIds, String status) {
+        if (!TRANSITIONS.containsKey(status)) {
+            throw new IllegalArgumentException("Unknown claim status: " + status);
+        }
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(claimIds));
+        Map<String, Claim> current = new HashMap<>();
+        // Chunks are locked in claimId order too, so the lock order is global across chunks
+        for (List<String> chunk : chunks(ids.stream().sorted().toList())) {
+            claimRepository.findAllForUpdate(chunk).forEach(claim -> current.put(claim.getClaimId(), claim));
+        }
+
+        List<ClaimStatusResultDTO> results = new ArrayList<>(ids.size());
+        List<String> updatedIds = new ArrayList<>();
+        List<String> owners = new ArrayList<>();
+        for (String id : ids) {
+            Claim claim = current.get(id);
+            if (claim == null) {
+                results.add(new ClaimStatusResultDTO(id, TransitionOutcome.NOT_FOUND, null, "Claim not found"));
+            } else if (status.equals(claim.getStatus())) {
+                results.add(new ClaimStatusResultDTO(id, TransitionOutcome.UNCHANGED, claim.getStatus(), null));
+            } else if (!canTransition(claim.getStatus(), status)) {
+                results.add(new ClaimStatusResultDTO(id, TransitionOutcome.INVALID_TRANSITION, claim.getStatus(),
+                        "Cannot move a claim from " + claim.getStatus() + " to " + status));
+            } else {
+                results.add(new ClaimStatusResultDTO(id, TransitionOutcome.UPDATED, claim.getStatus(), null));
+                updatedIds.add(id);
+                owners.add(claim.getUserId());
+            }
+        }
+
+        for (List<String> chunk : chunks(updatedIds)) {
+            claimRepository.updateStatus(chunk, status);
+        }
+        if (!owners.isEmpty()) {
+            notificationService.createNotifications(owners, "CLAIM_UPDATE", "Your claim status has been updated to: " + status);
+        }
+        return results;
+    }
+
     public void deleteClaim(String claimId) {
         claimRepository.deleteById(claimId);
     }
+
+    private static boolean canTransition(String from, String to) {
+        return to != null && TRANSITIONS.getOrDefault(from, Set.of()).contains(to);
+    }
+
+    private static List<List<String>> chunks(List<String> ids) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static String encodeCursor(Claim last) {
+        String key = last.getDateFiled() + "|" + last.getClaimId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (key.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDate.parse(key[0]);
+            return key;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.insurai.insurai.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.insurai.insurai.model.Notification;
+
+// Single-node bus: subscribers run on the publishing thread
+public class InProcessNotificationBus implements NotificationBus {
+
+    private final List<Consumer<Notification>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Notification notification) {
+        for (Consumer<Notification> subscriber : subscribers) {
+            subscriber.accept(notification);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Notification> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
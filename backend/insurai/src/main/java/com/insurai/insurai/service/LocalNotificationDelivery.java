@@ -0,0 +1,40 @@
+package com.insurai.insurai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.insurai.insurai.handler.NotificationWebSocketHandler;
+import com.insurai.insurai.model.Notification;
+
+// This node's subscription to the notification bus: numbers each notification in the replay log
+// and hands it to whichever of the owner's sockets and event streams are connected here
+@Component
+public class LocalNotificationDelivery {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalNotificationDelivery.class);
+
+    private final NotificationReplayLog replayLog;
+    private final NotificationWebSocketHandler webSocketHandler;
+    private final NotificationStreamService streamService;
+
+    public LocalNotificationDelivery(NotificationBus bus, NotificationReplayLog replayLog,
+                                     NotificationWebSocketHandler webSocketHandler, NotificationStreamService streamService) {
+        this.replayLog = replayLog;
+        this.webSocketHandler = webSocketHandler;
+        this.streamService = streamService;
+        bus.subscribe(this::deliver);
+    }
+
+    void deliver(Notification notification) {
+        try {
+            replayLog.publish(notification, frame -> {
+                webSocketHandler.send(frame);
+                streamService.send(frame);
+            });
+        } catch (JsonProcessingException e) {
+            log.warn("Dropping notification {} that cannot be serialized", notification.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.insurai.insurai.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurai.insurai.model.Notification;
+
+// Cold storage for retired notifications: one append-only notifications-YYYY-MM.jsonl.gz file per month
+// of notification timestamp. Each append writes a complete gzip member and is fsynced before returning,
+// so rows can be deleted from the table afterwards; concatenated members read back as one stream.
+@Component
+public class NotificationArchive {
+
+    private static final String PREFIX = "notifications-";
+    private static final String SUFFIX = ".jsonl.gz";
+    private static final Comparator<Notification> NEWEST_FIRST =
+            Comparator.comparing(Notification::getTimestamp).thenComparing(Notification::getId).reversed();
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public NotificationArchive(ObjectMapper objectMapper,
+                               @Value("${notifications.retention.archive-dir:data/notification-archive}") String directory) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+    }
+
+    public void append(List<Notification> notifications) throws IOException {
+        Map<YearMonth, List<Notification>> byMonth = notifications.stream()
+                .collect(Collectors.groupingBy(n -> YearMonth.from(n.getTimestamp()), TreeMap::new, Collectors.toList()));
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<YearMonth, List<Notification>> month : byMonth.entrySet()) {
+                try (FileOutputStream file = new FileOutputStream(fileFor(month.getKey()).toFile(), true);
+                     GZIPOutputStream gzip = new GZIPOutputStream(file, 8192)) {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+                    for (Notification notification : month.getValue()) {
+                        writer.write(objectMapper.writeValueAsString(notification));
+                        writer.write('\n');
+                    }
+                    writer.flush();
+                    gzip.finish();
+                    file.getFD().sync();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Scans the monthly files between from and to (inclusive, either may be null) for one user's rows, newest
+    // first, starting after the (beforeTimestamp, beforeId) position when one is given. Months hold disjoint
+    // time ranges, so the scan stops at the month that fills the limit. A crash between archiving and deleting
+    // can archive a row twice, so ids are deduplicated.
+    public List<Notification> read(String userId, YearMonth from, YearMonth to,
+                                   LocalDateTime beforeTimestamp, String beforeId, int limit) throws IOException {
+        if (beforeTimestamp != null && (to == null || to.isAfter(YearMonth.from(beforeTimestamp)))) {
+            to = YearMonth.from(beforeTimestamp);
+        }
+        String userMarker = "\"userId\":" + objectMapper.writeValueAsString(userId);
+        List<Notification> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Path file : monthFiles(from, to)) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                List<Notification> month = new ArrayList<>();
+                Set<String> seen = new HashSet<>();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(file), 8192), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        // cheap substring check first; only matching lines are parsed
+                        if (line.contains(userMarker)) {
+                            Notification notification = objectMapper.readValue(line, Notification.class);
+                            if (userId.equals(notification.getUserId()) && isBefore(notification, beforeTimestamp, beforeId)
+                                    && seen.add(notification.getId())) {
+                                month.add(notification);
+                            }
+                        }
+                    }
+                } catch (EOFException e) {
+                    // a truncated trailing member from an interrupted append; everything before it is intact
+                }
+                month.sort(NEWEST_FIRST);
+                result.addAll(month.subList(0, Math.min(month.size(), limit - result.size())));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private static boolean isBefore(Notification notification, LocalDateTime timestamp, String id) {
+        if (timestamp == null) {
+            return true;
+        }
+        int byTime = notification.getTimestamp().compareTo(timestamp);
+        return byTime < 0 || (byTime == 0 && notification.getId().compareTo(id) < 0);
+    }
+
+    private List<Path> monthFiles(YearMonth from, YearMonth to) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        TreeMap<YearMonth, Path> files = new TreeMap<>();
+        try (var listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                YearMonth month = monthOf(file);
+                if (month != null && (from == null || !month.isBefore(from)) && (to == null || !month.isAfter(to))) {
+                    files.put(month, file);
+                }
+            }
+        }
+        return new ArrayList<>(files.descendingMap().values());
+    }
+
+    private Path fileFor(YearMonth month) {
+        return directory.resolve(PREFIX + month + SUFFIX);
+    }
+
+    private static YearMonth monthOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
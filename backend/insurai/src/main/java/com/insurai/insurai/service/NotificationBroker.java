@@ -0,0 +1,11 @@
+package com.insurai.insurai.service;
+
+import java.util.function.Consumer;
+
+// Transport under BrokerNotificationBus: fans a text payload out to the listeners on every node
+public interface NotificationBroker {
+
+    void publish(String payload);
+
+    void listen(Consumer<String> listener);
+}
@@ -0,0 +1,14 @@
+package com.insurai.insurai.service;
+
+import java.util.function.Consumer;
+
+import com.insurai.insurai.model.Notification;
+
+// Carries committed notifications to every backend node so each can push to the sockets it holds.
+// Selected with notifications.bus.type: in-process (single node) or postgres (LISTEN/NOTIFY).
+public interface NotificationBus {
+
+    void publish(Notification notification);
+
+    void subscribe(Consumer<Notification> subscriber);
+}
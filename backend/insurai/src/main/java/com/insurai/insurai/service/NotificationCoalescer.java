@@ -0,0 +1,142 @@
+package com.insurai.insurai.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// Merges bursts of same-type notifications into one digest per user. Types with a configured window
+// (notifications.coalesce.windows, e.g. NEW_CLAIM=30000) are held for that many milliseconds after the
+// first event; each user then gets one row and one push: the original message if only one event arrived,
+// otherwise a digest such as "12 new claims submitted for review". Other types are written immediately.
+// Pending events live only in memory and reach the outbox only when their window is flushed, so a crash
+// loses at most one window of digests. Due windows are written on the notification executor, not the
+// scheduler thread.
+@Component
+public class NotificationCoalescer {
+
+    private static final Map<String, String> DIGEST_FORMATS = Map.of(
+            "NEW_CLAIM", "%d new claims submitted for review");
+
+    private final NotificationService notificationService;
+    private final Executor executor;
+    private final Map<String, Long> windows;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public NotificationCoalescer(NotificationService notificationService,
+                                 @Qualifier("notificationExecutor") Executor executor,
+                                 @Value("${notifications.coalesce.windows:NEW_CLAIM=30000}") String windows) {
+        this.notificationService = notificationService;
+        this.executor = executor;
+        this.windows = parseWindows(windows);
+    }
+
+    public void submit(List<String> userIds, String type, String message) {
+        Long window = windows.get(type);
+        if (window == null) {
+            notificationService.createNotifications(userIds, type, message);
+            return;
+        }
+        // a bucket closed by a concurrent flush rejects the add; retry against its replacement
+        while (!buckets.computeIfAbsent(type, t -> new Bucket(System.currentTimeMillis() + window)).add(userIds, message)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.coalesce.flush-ms:1000}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        buckets.forEach((type, bucket) -> {
+            if (bucket.dueAt <= now) {
+                try {
+                    executor.execute(() -> flush(type, bucket));
+                } catch (RejectedExecutionException e) {
+                    // The bucket stays in place and is flushed on a later tick
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        buckets.forEach(this::flush);
+    }
+
+    private void flush(String type, Bucket bucket) {
+        if (!buckets.remove(type, bucket)) {
+            return;
+        }
+        // users with the same resulting message share one batched insert
+        Map<String, List<String>> usersByMessage = new LinkedHashMap<>();
+        for (Map.Entry<String, Pending> entry : bucket.close().entrySet()) {
+            Pending pending = entry.getValue();
+            String message = pending.count == 1 ? pending.lastMessage : digest(type, pending.count);
+            usersByMessage.computeIfAbsent(message, m -> new ArrayList<>()).add(entry.getKey());
+        }
+        usersByMessage.forEach((message, userIds) -> notificationService.createNotifications(userIds, type, message));
+    }
+
+    private static String digest(String type, int count) {
+        String format = DIGEST_FORMATS.get(type);
+        return format != null ? String.format(format, count) : count + " new " + type + " notifications";
+    }
+
+    private static Map<String, Long> parseWindows(String windows) {
+        Map<String, Long> parsed = new HashMap<>();
+        for (String entry : windows.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid coalescing window: " + entry);
+            }
+            parsed.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+        }
+        return parsed;
+    }
+
+    private static final class Bucket {
+
+        private final long dueAt;
+        private final Map<String, Pending> pending = new LinkedHashMap<>();
+        private boolean closed;
+
+        private Bucket(long dueAt) {
+            this.dueAt = dueAt;
+        }
+
+        private synchronized boolean add(List<String> userIds, String message) {
+            if (closed) {
+                return false;
+            }
+            for (String userId : userIds) {
+                Pending p = pending.computeIfAbsent(userId, id -> new Pending());
+                p.count++;
+                p.lastMessage = message;
+            }
+            return true;
+        }
+
+        private synchronized Map<String, Pending> close() {
+            closed = true;
+            return pending;
+        }
+    }
+
+    private static final class Pending {
+        private int count;
+        private String lastMessage;
+    }
+}
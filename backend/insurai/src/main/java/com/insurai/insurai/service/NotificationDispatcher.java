@@ -0,0 +1,196 @@
+package com.insurai.insurai.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.model.NotificationOutboxEntry;
+import com.insurai.insurai.repository.NotificationOutboxRepository;
+import com.insurai.insurai.repository.NotificationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Drains the notification outbox after commit and publishes each row on the notification bus,
+// from which every node pushes to the owner's sockets it holds.
+// Publishing is at-least-once: an entry is deleted in the transaction that published it, and a publish
+// that throws (serialization, or the broker rejecting it) is retried with exponential backoff until
+// max-attempts. The push after that is at-most-once: nodes hand frames to in-memory socket and stream
+// queues and report nothing back, so a frame lost there, or sent while the user has no connection, is
+// not retried. The stored notification and reconnect catch-up cover those cases.
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationBus bus;
+    private final Executor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AtomicLong depth = new AtomicLong();
+    private final Timer dispatchLag;
+    private final Counter failedDispatches;
+
+    public NotificationDispatcher(NotificationOutboxRepository outboxRepository,
+                                  NotificationRepository notificationRepository,
+                                  NotificationBus bus,
+                                  @Qualifier("notificationExecutor") Executor executor,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notifications.outbox.batch-size:200}") int batchSize,
+                                  @Value("${notifications.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.notificationRepository = notificationRepository;
+        this.bus = bus;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        Gauge.builder("notifications.outbox.depth", depth, AtomicLong::get)
+                .description("Notifications waiting in the outbox")
+                .register(meterRegistry);
+        this.dispatchLag = Timer.builder("notifications.outbox.dispatch.lag")
+                .description("Time from outbox write to push")
+                .register(meterRegistry);
+        this.failedDispatches = Counter.builder("notifications.outbox.failed")
+                .description("Outbox entries dropped after exhausting retries or failing permanently")
+                .register(meterRegistry);
+    }
+
+    // Schedules a drain once the current transaction commits; rolled-back notifications are never pushed
+    public void dispatchAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestDrain();
+                }
+            });
+        } else {
+            requestDrain();
+        }
+    }
+
+    // Picks up retries and anything left behind by a crash between commit and push
+    @Scheduled(initialDelayString = "${notifications.outbox.poll-ms:5000}", fixedDelayString = "${notifications.outbox.poll-ms:5000}")
+    public void poll() {
+        requestDrain();
+    }
+
+    private void requestDrain() {
+        drainRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            startDrainLoop();
+        }
+    }
+
+    // A saturated executor leaves the request pending for the next poll instead of draining on this thread
+    private void startDrainLoop() {
+        try {
+            executor.execute(this::drainLoop);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            log.warn("Notification executor saturated; outbox drain deferred to the next poll");
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            while (drainRequested.getAndSet(false)) {
+                drain();
+            }
+        } catch (Exception e) {
+            log.warn("Notification outbox drain failed", e);
+        } finally {
+            draining.set(false);
+        }
+        // A request may have arrived between the last check and releasing the flag
+        if (drainRequested.get() && draining.compareAndSet(false, true)) {
+            startDrainLoop();
+        }
+    }
+
+    public void drain() {
+        int processed;
+        do {
+            Integer count = transactionTemplate.execute(status -> dispatchBatch());
+            processed = count != null ? count : 0;
+        } while (processed == batchSize);
+        depth.set(outboxRepository.count());
+    }
+
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutboxEntry> entries = outboxRepository.lockDueEntries(now, batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Map<String, Notification> notifications = notificationRepository
+                .findAllById(entries.stream().map(NotificationOutboxEntry::getNotificationId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Notification::getId, Function.identity()));
+
+        List<NotificationOutboxEntry> done = new ArrayList<>();
+        for (NotificationOutboxEntry entry : entries) {
+            Notification notification = notifications.get(entry.getNotificationId());
+            if (notification == null) {
+                done.add(entry);
+                continue;
+            }
+            try {
+                bus.publish(notification);
+                dispatchLag.record(Duration.between(entry.getCreatedAt(), now));
+                done.add(entry);
+            } catch (IllegalArgumentException e) {
+                // The bus can never carry this one (e.g. over the NOTIFY size limit); retrying will not help
+                log.warn("Dropping notification {} the bus rejected", entry.getNotificationId(), e);
+                failedDispatches.increment();
+                done.add(entry);
+            } catch (Exception e) {
+                retryLater(entry, now, done);
+            }
+        }
+        outboxRepository.deleteAllInBatch(done);
+        return entries.size();
+    }
+
+    private void retryLater(NotificationOutboxEntry entry, LocalDateTime now, List<NotificationOutboxEntry> done) {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            log.warn("Giving up on notification {} after {} attempts", entry.getNotificationId(), attempts);
+            failedDispatches.increment();
+            done.add(entry);
+            return;
+        }
+        entry.setAttempts(attempts);
+        entry.setNextAttemptAt(now.plusSeconds(Math.min(1L << attempts, 300L)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.insurai.insurai.service;
+
+import java.util.List;
+
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.insurai.insurai.model.UserCategory;
+import com.insurai.insurai.repository.UserRepository;
+
+// Sends one notification to every user in the given categories off the request thread, on the bounded
+// fanoutExecutor (which drops and counts fan-outs when saturated); bursty types are merged into digests
+// by the coalescer
+@Service
+public class NotificationFanoutService {
+
+    private final UserRepository userRepository;
+    private final NotificationCoalescer coalescer;
+
+    public NotificationFanoutService(UserRepository userRepository, NotificationCoalescer coalescer) {
+        this.userRepository = userRepository;
+        this.coalescer = coalescer;
+    }
+
+    @Async("fanoutExecutor")
+    public void notifyCategories(List<UserCategory> categories, String type, String message) {
+        List<String> userIds = userRepository.findIdsByCategoryIn(categories);
+        if (!userIds.isEmpty()) {
+            coalescer.submit(userIds, type, message);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.insurai.insurai.service;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insurai.insurai.handler.NotificationFrame;
+import com.insurai.insurai.model.Notification;
+
+// Serializes notifications with the application's ObjectMapper (JSR-310 dates as ISO strings),
+// reusing one pre-resolved writer instead of looking up serializers per call. The pushed JSON is the
+// notification itself plus "seq" and "epoch", which clients echo back to resume after a reconnect.
+@Component
+public class NotificationFrameEncoder {
+
+    private final ObjectWriter writer;
+
+    public NotificationFrameEncoder(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(PushedNotification.class);
+    }
+
+    public NotificationFrame encode(Notification notification, String epoch, long seq) throws JsonProcessingException {
+        byte[] payload = writer.writeValueAsBytes(new PushedNotification(seq, epoch, notification));
+        return new NotificationFrame(notification.getUserId(), seq, notification.getId(), payload);
+    }
+
+    private record PushedNotification(long seq, String epoch, @JsonUnwrapped Notification notification) {
+    }
+}
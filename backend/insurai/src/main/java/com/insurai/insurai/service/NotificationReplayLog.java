@@ -0,0 +1,204 @@
+package com.insurai.insurai.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.insurai.insurai.handler.NotificationFrame;
+import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.repository.NotificationRepository;
+
+// Numbers every pushed frame and keeps the last few per user so a reconnecting client can be sent
+// exactly what it missed. Sequence numbers come from one counter per process and are only meaningful
+// together with this process's epoch; a client from another epoch, or one whose frames have already
+// left the ring, is caught up from the database instead (keyset query after its last notification id).
+// Publishing and attaching for a user hold that user's lock, so a frame is either in the replay handed
+// to a new subscriber or delivered to it live, never both. The lock lives on the user's entry but is
+// taken outside the map: the map itself is only touched to create or evict entries, and a slow delivery
+// holds up no one but that user.
+@Component
+public class NotificationReplayLog {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationReplayLog.class);
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, UserLog> logs = new ConcurrentHashMap<>();
+    private final NotificationFrameEncoder frameEncoder;
+    private final NotificationRepository notificationRepository;
+    private final int capacity;
+    private final long idleMillis;
+    private final int fallbackLimit;
+
+    public NotificationReplayLog(NotificationFrameEncoder frameEncoder,
+                                 NotificationRepository notificationRepository,
+                                 @Value("${notifications.replay.capacity:100}") int capacity,
+                                 @Value("${notifications.replay.idle-ms:600000}") long idleMillis,
+                                 @Value("${notifications.replay.fallback-limit:200}") int fallbackLimit) {
+        this.frameEncoder = frameEncoder;
+        this.notificationRepository = notificationRepository;
+        this.capacity = capacity;
+        this.idleMillis = idleMillis;
+        this.fallbackLimit = fallbackLimit;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    // Assigns the next sequence number, remembers the frame and hands it to deliver, all under the user's lock
+    public NotificationFrame publish(Notification notification, Consumer<NotificationFrame> deliver) throws JsonProcessingException {
+        UserLog userLog = lock(notification.getUserId());
+        try {
+            NotificationFrame frame = frameEncoder.encode(notification, epoch, sequence.incrementAndGet());
+            userLog.add(frame, capacity);
+            deliver.accept(frame);
+            return frame;
+        } finally {
+            userLog.lock.unlock();
+        }
+    }
+
+    // Runs subscribe with the frames a client resuming from the given point has missed, so the caller can
+    // register the client and queue them before any newer frame is published. A client without a resume
+    // point gets an empty list.
+    public void attach(String userId, ResumePoint from, Consumer<List<NotificationFrame>> subscribe) {
+        UserLog userLog = lock(userId);
+        try {
+            if (from == null) {
+                subscribe.accept(List.of());
+                return;
+            }
+            if (epoch.equals(from.epoch()) && userLog.covers(from.lastSeq())) {
+                subscribe.accept(userLog.since(from.lastSeq()));
+                return;
+            }
+        } finally {
+            userLog.lock.unlock();
+        }
+        // The ring cannot cover the gap: read the missed rows outside the lock, then add anything published
+        // since. A row committed in between can arrive twice; clients drop repeated notification ids.
+        long mark = sequence.get();
+        List<Notification> missed = from.lastNotificationId() != null ? missedRows(userId, from.lastNotificationId()) : List.of();
+        List<NotificationFrame> frames = new ArrayList<>(missed.size());
+        for (Notification notification : missed) {
+            try {
+                frames.add(frameEncoder.encode(notification, epoch, mark));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping notification {} that cannot be serialized", notification.getId(), e);
+            }
+        }
+        userLog = lock(userId);
+        try {
+            frames.addAll(userLog.since(mark));
+            subscribe.accept(frames);
+        } finally {
+            userLog.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.replay.idle-ms:600000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        for (Map.Entry<String, UserLog> entry : logs.entrySet()) {
+            UserLog userLog = entry.getValue();
+            // A log in use is not idle; skip it rather than wait
+            if (userLog.lastUsed >= cutoff || !userLog.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (userLog.lastUsed < cutoff) {
+                    userLog.evicted = true;
+                    logs.remove(entry.getKey(), userLog);
+                }
+            } finally {
+                userLog.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return logs.size();
+    }
+
+    // The user's log with its lock held, created if missing; an entry evicted between lookup and locking
+    // is looked up again
+    private UserLog lock(String userId) {
+        while (true) {
+            UserLog userLog = logs.computeIfAbsent(userId, id -> new UserLog(sequence.get()));
+            userLog.lock.lock();
+            if (!userLog.evicted) {
+                return userLog;
+            }
+            userLog.lock.unlock();
+        }
+    }
+
+    // Newest fallbackLimit rows after the client's last notification, oldest first
+    private List<Notification> missedRows(String userId, String lastNotificationId) {
+        Notification last = notificationRepository.findById(lastNotificationId).orElse(null);
+        if (last == null || !last.getUserId().equals(userId)) {
+            return List.of();
+        }
+        List<Notification> rows = new ArrayList<>(notificationRepository.findNewerThan(userId, last.getTimestamp(),
+                last.getId(), PageRequest.of(0, fallbackLimit)));
+        Collections.reverse(rows);
+        return rows;
+    }
+
+    // Where a reconnecting client left off, as echoed from the last frame it processed
+    public record ResumePoint(String epoch, long lastSeq, String lastNotificationId) {
+    }
+
+    private static final class UserLog {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<NotificationFrame> frames = new ArrayDeque<>();
+        // Frames with a sequence at or below this may have been dropped for this user
+        private long droppedUpTo;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private boolean evicted;
+
+        private UserLog(long createdAt) {
+            this.droppedUpTo = createdAt;
+        }
+
+        private void add(NotificationFrame frame, int capacity) {
+            if (frames.size() == capacity) {
+                droppedUpTo = frames.removeFirst().getSeq();
+            }
+            frames.addLast(frame);
+            lastUsed = System.currentTimeMillis();
+        }
+
+        private boolean covers(long lastSeq) {
+            return lastSeq >= droppedUpTo;
+        }
+
+        private List<NotificationFrame> since(long lastSeq) {
+            lastUsed = System.currentTimeMillis();
+            List<NotificationFrame> missed = new ArrayList<>();
+            for (NotificationFrame frame : frames) {
+                if (frame.getSeq() > lastSeq) {
+                    missed.add(frame);
+                }
+            }
+            return missed;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.insurai.insurai.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.repository.NotificationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Retires read notifications older than max-age-days: each batch is appended to the cold archive
+// and only then deleted, in its own short transaction, with a pause between batches so the sweep
+// never holds locks for long or competes with live traffic. Unread rows are never touched.
+@Component
+public class NotificationRetentionSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionSweeper.class);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchive archive;
+    private final Executor sweepExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAgeDays;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMillis;
+    private final Counter archivedRows;
+
+    public NotificationRetentionSweeper(NotificationRepository notificationRepository,
+                                        NotificationArchive archive,
+                                        @Qualifier("retentionExecutor") Executor sweepExecutor,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${notifications.retention.max-age-days:90}") int maxAgeDays,
+                                        @Value("${notifications.retention.batch-size:500}") int batchSize,
+                                        @Value("${notifications.retention.max-batches:20}") int maxBatches,
+                                        @Value("${notifications.retention.pause-ms:200}") long pauseMillis) {
+        this.notificationRepository = notificationRepository;
+        this.archive = archive;
+        this.sweepExecutor = sweepExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAgeDays = maxAgeDays;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pauseMillis = pauseMillis;
+        this.archivedRows = Counter.builder("notifications.retention.archived")
+                .description("Read notifications moved from the table to the archive")
+                .register(meterRegistry);
+    }
+
+    // The sweep pauses between batches, so the trigger hands it to its own thread rather than holding the
+    // scheduler thread the other @Scheduled tasks share
+    @Scheduled(initialDelayString = "${notifications.retention.initial-delay-ms:120000}",
+               fixedDelayString = "${notifications.retention.interval-ms:3600000}")
+    public void scheduleSweep() {
+        sweepExecutor.execute(this::sweep);
+    }
+
+    public int sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+        int total = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                List<Notification> rows = notificationRepository.findArchivable(cutoff, PageRequest.of(0, batchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                archive.append(rows);
+                List<String> ids = rows.stream().map(Notification::getId).toList();
+                Integer deleted = transactionTemplate.execute(status -> notificationRepository.deleteArchived(ids));
+                total += deleted != null ? deleted : 0;
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (IOException e) {
+            // nothing from the failed batch was deleted; it is retried on the next sweep
+            log.error("Notification archive write failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        archivedRows.increment(total);
+        if (total > 0) {
+            log.info("Archived {} read notifications older than {} days", total, maxAgeDays);
+        }
+        return total;
+    }
+}
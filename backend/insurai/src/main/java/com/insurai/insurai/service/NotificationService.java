@@ -1,27 +1,49 @@
 package com.insurai.insurai.service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.insurai.insurai.handler.NotificationWebSocketHandler;
+import com.insurai.insurai.dto.NotificationPageDTO;
 import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.model.NotificationOutboxEntry;
+import com.insurai.insurai.repository.NotificationOutboxRepository;
 import com.insurai.insurai.repository.NotificationRepository;
 
 @Service
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final ObjectMapper objectMapper;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationDispatcher dispatcher;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationArchive archive;
 
-    public NotificationService(NotificationRepository notificationRepository) {
+    public NotificationService(NotificationRepository notificationRepository, NotificationOutboxRepository outboxRepository,
+                               NotificationDispatcher dispatcher, UnreadNotificationCounter unreadCounter,
+                               NotificationArchive archive) {
         this.notificationRepository = notificationRepository;
-        this.objectMapper = new ObjectMapper();
+        this.outboxRepository = outboxRepository;
+        this.dispatcher = dispatcher;
+        this.unreadCounter = unreadCounter;
+        this.archive = archive;
     }
 
-    @SuppressWarnings("UseSpecificCatch")
+    // Joins the caller's transaction so the notification commits or rolls back with the business change;
+    // the push happens after commit via the outbox
+    @Transactional
     public Notification createNotification(String userId, String type, String message) {
         Notification notification = Notification.builder()
                 .userId(userId)
@@ -31,13 +53,31 @@ public class NotificationService {
                 .timestamp(LocalDateTime.now())
                 .build();
         Notification saved = notificationRepository.save(notification);
-        // Broadcast to WebSocket
-        try {
-            String json = objectMapper.writeValueAsString(saved);
-            NotificationWebSocketHandler.broadcast(json);
-        } catch (Exception e) {
-            // Handle exception
+        outboxRepository.save(outboxEntry(saved));
+        dispatcher.dispatchAfterCommit();
+        unreadCounter.adjustAfterCommit(userId, 1);
+        return saved;
+    }
+
+    // Inserts all rows and their outbox entries as JDBC batches
+    @Transactional
+    public List<Notification> createNotifications(List<String> userIds, String type, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> notifications = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            notifications.add(Notification.builder()
+                    .userId(userId)
+                    .type(type)
+                    .message(message)
+                    .read(false)
+                    .timestamp(now)
+                    .build());
         }
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        outboxRepository.saveAll(saved.stream().map(NotificationService::outboxEntry).collect(Collectors.toList()));
+        dispatcher.dispatchAfterCommit();
+        Map<String, Long> perUser = userIds.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        perUser.forEach(unreadCounter::adjustAfterCommit);
         return saved;
     }
 
@@ -45,16 +85,99 @@ public class NotificationService {
         return notificationRepository.findByUserIdOrderByTimestampDesc(userId);
     }
 
+    // Cursor is opaque to clients: the (timestamp, id) of the last row of the previous page
+    public NotificationPageDTO getNotificationPage(String userId, String cursor, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<Notification> items;
+        if (cursor == null) {
+            items = notificationRepository.findFirstPage(userId, page);
+        } else {
+            String[] key = decodeCursor(cursor);
+            items = notificationRepository.findPageBefore(userId, LocalDateTime.parse(key[0]), key[1], page);
+        }
+        String nextCursor = items.size() < limit ? null : encodeCursor(items.get(items.size() - 1));
+        return new NotificationPageDTO(items, nextCursor);
+    }
+
+    // Notifications retired by the retention sweep, paged like getNotificationPage; scans the compressed
+    // monthly archives, so it is slow
+    public NotificationPageDTO getArchivedNotifications(String userId, YearMonth from, YearMonth to,
+                                                        String cursor, int limit) throws IOException {
+        LocalDateTime beforeTimestamp = null;
+        String beforeId = null;
+        if (cursor != null) {
+            String[] key = decodeCursor(cursor);
+            beforeTimestamp = LocalDateTime.parse(key[0]);
+            beforeId = key[1];
+        }
+        List<Notification> items = archive.read(userId, from, to, beforeTimestamp, beforeId, limit);
+        String nextCursor = items.size() < limit ? null : encodeCursor(items.get(items.size() - 1));
+        return new NotificationPageDTO(items, nextCursor);
+    }
+
     public List<Notification> getUnreadNotificationsByUserId(String userId) {
         return notificationRepository.findByUserIdAndReadFalseOrderByTimestampDesc(userId);
     }
 
+    public long getUnreadCount(String userId) {
+        return unreadCounter.get(userId);
+    }
+
+    @Transactional
     public Notification markAsRead(String notificationId) {
         Notification notification = notificationRepository.findById(notificationId).orElse(null);
-        if (notification != null) {
-            notification.setRead(true);
-            return notificationRepository.save(notification);
+        if (notification == null) {
+            return null;
+        }
+        if (notificationRepository.markReadIfUnread(notificationId) == 1) {
+            unreadCounter.adjustAfterCommit(notification.getUserId(), -1);
         }
-        return null;
+        notification.setRead(true);
+        return notification;
+    }
+
+    // Marks the user's unread notifications as read in a single UPDATE. With upToId, only notifications
+    // no newer than that one are marked, so anything that arrived after the client's view stays unread.
+    // Returns the number of rows marked, or -1 if upToId is not one of the user's notifications.
+    @Transactional
+    public int markAllAsRead(String userId, String upToId) {
+        int updated;
+        if (upToId == null) {
+            updated = notificationRepository.markAllRead(userId);
+        } else {
+            Notification upTo = notificationRepository.findById(upToId).orElse(null);
+            if (upTo == null || !upTo.getUserId().equals(userId)) {
+                return -1;
+            }
+            updated = notificationRepository.markReadUpTo(userId, upTo.getTimestamp(), upTo.getId());
+        }
+        unreadCounter.adjustAfterCommit(userId, -updated);
+        return updated;
+    }
+
+    private static String encodeCursor(Notification last) {
+        String key = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (key.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(key[0]);
+            return key;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static NotificationOutboxEntry outboxEntry(Notification notification) {
+        return NotificationOutboxEntry.builder()
+                .notificationId(notification.getId())
+                .createdAt(notification.getTimestamp())
+                .nextAttemptAt(notification.getTimestamp())
+                .build();
     }
 }
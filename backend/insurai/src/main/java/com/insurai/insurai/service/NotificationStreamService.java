@@ -0,0 +1,108 @@
+package com.insurai.insurai.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+
+import com.insurai.insurai.handler.NotificationFrame;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+// Server-Sent Events alternative to the notification WebSocket for clients behind proxies that drop
+// upgrades. Streams hold no request thread while idle: frames are buffered per stream (buffer-size) and
+// written by Spring MVC from the shared mvcAsyncExecutor. When a client falls behind, the overflow strategy
+// drops either the incoming frames ("drop") or the oldest buffered ones ("latest"). Event ids carry the
+// replay position, so a browser reconnecting with Last-Event-ID resumes like a WebSocket client does.
+@Component
+public class NotificationStreamService {
+
+    private final Map<String, Set<FluxSink<NotificationFrame>>> sinksByUser = new ConcurrentHashMap<>();
+    private final NotificationReplayLog replayLog;
+    private final int bufferSize;
+    private final BufferOverflowStrategy overflowStrategy;
+    private final Duration heartbeat;
+    private final Counter droppedFrames;
+
+    public NotificationStreamService(NotificationReplayLog replayLog,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${notifications.sse.buffer-size:256}") int bufferSize,
+                                     @Value("${notifications.sse.overflow:latest}") String overflow,
+                                     @Value("${notifications.sse.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.replayLog = replayLog;
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = switch (overflow) {
+            case "drop" -> BufferOverflowStrategy.DROP_LATEST;
+            case "latest" -> BufferOverflowStrategy.DROP_OLDEST;
+            default -> throw new IllegalArgumentException("notifications.sse.overflow must be drop or latest: " + overflow);
+        };
+        this.heartbeat = Duration.ofMillis(heartbeatMillis);
+        this.droppedFrames = Counter.builder("notifications.sse.dropped")
+                .description("Frames dropped for SSE clients that fell behind")
+                .register(meterRegistry);
+    }
+
+    public Flux<ServerSentEvent<String>> stream(String userId, String lastEventId) {
+        Flux<ServerSentEvent<String>> frames = Flux.<NotificationFrame>create(sink ->
+                        replayLog.attach(userId, resumePoint(lastEventId), missed -> {
+                            sinksByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(sink);
+                            sink.onDispose(() -> remove(userId, sink));
+                            missed.forEach(sink::next);
+                        }))
+                .onBackpressureBuffer(bufferSize, frame -> droppedFrames.increment(), overflowStrategy)
+                .map(frame -> ServerSentEvent.builder(frame.getPayload())
+                        .id(replayLog.getEpoch() + ":" + frame.getSeq() + ":" + frame.getNotificationId())
+                        .event("notification")
+                        .build());
+        // Comments keep idle connections open through proxies; they are dropped rather than queued
+        Flux<ServerSentEvent<String>> keepAlive = Flux.interval(heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<String>builder().comment("keep-alive").build());
+        return Flux.merge(frames, keepAlive);
+    }
+
+    public void send(NotificationFrame frame) {
+        Set<FluxSink<NotificationFrame>> sinks = sinksByUser.get(frame.getUserId());
+        if (sinks == null) {
+            return;
+        }
+        for (FluxSink<NotificationFrame> sink : sinks) {
+            sink.next(frame);
+        }
+    }
+
+    public int getStreamCount() {
+        return sinksByUser.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void remove(String userId, FluxSink<NotificationFrame> sink) {
+        sinksByUser.computeIfPresent(userId, (id, sinks) -> {
+            sinks.remove(sink);
+            return sinks.isEmpty() ? null : sinks;
+        });
+    }
+
+    // Last-Event-ID is "epoch:seq:notificationId" as written above; anything else starts a fresh stream
+    private NotificationReplayLog.ResumePoint resumePoint(String lastEventId) {
+        if (lastEventId == null) {
+            return null;
+        }
+        String[] parts = lastEventId.split(":", 3);
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return new NotificationReplayLog.ResumePoint(parts[0], Long.parseLong(parts[1]), parts[2]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
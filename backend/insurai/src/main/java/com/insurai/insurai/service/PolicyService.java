@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.insurai.insurai.model.Policy;
 import com.insurai.insurai.repository.PolicyRepository;
@@ -76,6 +77,7 @@ public class PolicyService {
         return policyRepository.findByUserIdIsNull();
     }
 
+    @Transactional
     public Policy buyPolicy(String policyId, String userId) {
         Optional<Policy> templateOpt = policyRepository.findById(policyId);
         if (templateOpt.isEmpty() || templateOpt.get().getUserId() != null) {
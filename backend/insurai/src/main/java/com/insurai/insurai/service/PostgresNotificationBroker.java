@@ -0,0 +1,126 @@
+package com.insurai.insurai.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// PostgreSQL LISTEN/NOTIFY transport. Publishing runs pg_notify on the caller's transaction, so the
+// message goes out only if that transaction commits. Each publish runs inside a savepoint: a failed
+// pg_notify would otherwise abort the whole caller transaction, rolling back every other row in an outbox
+// batch along with it. Payloads of 8000 bytes or more, NOTIFY's limit, are rejected before reaching the
+// database. One background thread per node holds a pooled connection LISTENing on the channel and
+// reconnects with backoff if it drops.
+public class PostgresNotificationBroker implements NotificationBroker, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresNotificationBroker.class);
+
+    static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate savepoint;
+    private final String channel;
+    private final int pollMillis;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+    private Thread listenerThread;
+
+    public PostgresNotificationBroker(DataSource dataSource, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      String channel, int pollMillis) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.channel = channel;
+        this.pollMillis = pollMillis;
+    }
+
+    @Override
+    public void publish(String payload) {
+        int bytes = payload.getBytes(StandardCharsets.UTF_8).length;
+        if (bytes > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Notification payload of " + bytes + " bytes exceeds the NOTIFY limit");
+        }
+        savepoint.executeWithoutResult(status -> jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload));
+    }
+
+    @Override
+    public synchronized void listen(Consumer<String> listener) {
+        listeners.add(listener);
+        if (listenerThread == null) {
+            listenerThread = new Thread(this::listenLoop, "notification-listen");
+            listenerThread.setDaemon(true);
+            listenerThread.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        long backoffMillis = 1000;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                backoffMillis = 1000;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Notification listener lost its connection; retrying in {} ms", backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 30_000);
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(payload);
+            } catch (RuntimeException e) {
+                log.warn("Notification listener failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.insurai.insurai.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.insurai.insurai.model.RefreshToken;
+import com.insurai.insurai.model.User;
+import com.insurai.insurai.repository.RefreshTokenRepository;
+import com.insurai.insurai.repository.UserRepository;
+
+// Opaque refresh tokens: 256 random bits handed to the client, only their SHA-256 stored. Each one is
+// good for a single refresh, which returns its successor; reusing one (a stolen copy, or the owner after
+// a thief got there first) revokes every token descended from the same login.
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final long expirationMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                               @Value("${security.refresh.expiration-ms:1209600000}") long expirationMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.expirationMillis = expirationMillis;
+    }
+
+    // Starts a new token family for a fresh login
+    public String issue(User user) {
+        return issue(user.getId(), UUID.randomUUID().toString());
+    }
+
+    @Transactional
+    public Optional<Rotation> rotate(String rawToken) {
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(hash(rawToken));
+        if (stored.isEmpty() || stored.get().getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        RefreshToken token = stored.get();
+        if (refreshTokenRepository.markUsed(token.getId(), LocalDateTime.now()) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            return Optional.empty();
+        }
+        return userRepository.findById(token.getUserId())
+                .map(user -> new Rotation(user, issue(user.getId(), token.getFamilyId())));
+    }
+
+    // Logout: ends the whole family, so neither this token nor any successor can refresh again
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Transactional
+    @Scheduled(initialDelayString = "${security.refresh.purge-ms:3600000}", fixedDelayString = "${security.refresh.purge-ms:3600000}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private String issue(String userId, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .userId(userId)
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .createdAt(now)
+                .expiresAt(now.plus(Duration.ofMillis(expirationMillis)))
+                .build());
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.insurai.insurai.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.insurai.insurai.repository.NotificationRepository;
+
+// Per-user unread counts. A miss loads the count from the database, which stays the source of truth;
+// writers apply deltas after commit, and entries are reloaded after ttl so any drift from a race
+// between a load and a concurrent commit heals on its own.
+@Component
+public class UnreadNotificationCounter {
+
+    private final NotificationRepository notificationRepository;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public UnreadNotificationCounter(NotificationRepository notificationRepository,
+                                     @Value("${notifications.unread.ttl-ms:60000}") long ttlMillis) {
+        this.notificationRepository = notificationRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public long get(String userId) {
+        long now = System.currentTimeMillis();
+        CachedCount cached = counts.get(userId);
+        if (cached == null || cached.isExpired(now, ttlMillis)) {
+            cached = counts.compute(userId, (id, existing) -> existing != null && !existing.isExpired(now, ttlMillis)
+                    ? existing
+                    : new CachedCount(notificationRepository.countByUserIdAndReadFalse(id), now));
+        }
+        return cached.count.get();
+    }
+
+    // Applies the delta once the surrounding transaction commits; only users already cached are touched
+    public void adjustAfterCommit(String userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust(userId, delta);
+                }
+            });
+        } else {
+            adjust(userId, delta);
+        }
+    }
+
+    private void adjust(String userId, long delta) {
+        counts.computeIfPresent(userId, (id, cached) -> {
+            cached.count.updateAndGet(value -> Math.max(0, value + delta));
+            return cached;
+        });
+    }
+
+    @Scheduled(initialDelayString = "${notifications.unread.ttl-ms:60000}", fixedDelayString = "${notifications.unread.ttl-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        counts.values().removeIf(cached -> cached.isExpired(now, ttlMillis));
+    }
+
+    private static final class CachedCount {
+
+        private final AtomicLong count;
+        private final long loadedAt;
+
+        private CachedCount(long count, long loadedAt) {
+            this.count = new AtomicLong(count);
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isExpired(long now, long ttlMillis) {
+            return now - loadedAt >= ttlMillis;
+        }
+    }
+}
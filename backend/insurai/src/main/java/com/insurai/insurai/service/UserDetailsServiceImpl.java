@@ -2,12 +2,14 @@ package com.insurai.insurai.service;
 
 import com.insurai.insurai.model.User;
 import com.insurai.insurai.repository.UserRepository;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -30,7 +32,12 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return new org.springframework.security.core.userdetails.User(
                 user.get().getEmail(),
                 user.get().getPassword(),
-                new ArrayList<>() // No authorities for now
+                authoritiesFor(user.get().getCategory().name())
         );
     }
+
+    // The user's category as a role, e.g. ROLE_AGENT; shared with principals built from JWT claims
+    public static List<GrantedAuthority> authoritiesFor(String category) {
+        return category != null ? List.of(new SimpleGrantedAuthority("ROLE_" + category)) : List.of();
+    }
 }
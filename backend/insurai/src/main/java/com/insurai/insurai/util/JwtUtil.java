@@ -1,47 +1,63 @@
 package com.insurai.insurai.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
 
     private static final String SECRET = "insuraiSecretKeyForJWTTokenGenerationAndValidationPurposesOnly";
-    private static final int JWT_EXPIRATION = 86400000; // 24 hours in milliseconds
     private final SecretKey secretKey = Keys.hmacShaKeyFor(SECRET.getBytes());
+    // Parsers are immutable and thread-safe, so one is built up front instead of per call
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+    private final long expirationMillis;
+    private final int verifiedCacheSize;
+    // Recently verified tokens keyed by SHA-256 digest, so raw tokens are not kept; entries die at exp
+    private final ConcurrentHashMap<String, VerifiedToken> verified = new ConcurrentHashMap<>();
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public JwtUtil(@Value("${security.jwt.expiration-ms:900000}") long expirationMillis,
+                   @Value("${security.jwt.verified-cache.max-size:10000}") int verifiedCacheSize) {
+        this.expirationMillis = expirationMillis;
+        this.verifiedCacheSize = verifiedCacheSize;
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Checks signature and expiry once and returns the claims callers need; a token verified recently
+    // is answered from the cache. Throws JwtException (ExpiredJwtException once past exp) when invalid.
+    public VerifiedToken verify(String token) {
+        if (verifiedCacheSize <= 0) {
+            return parse(token);
+        }
+        String digest = digest(token);
+        VerifiedToken cached = verified.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired(Instant.now())) {
+                return cached;
+            }
+            verified.remove(digest, cached);
+        }
+        VerifiedToken verifiedToken = parse(token);
+        makeRoom();
+        verified.put(digest, verifiedToken);
+        return verifiedToken;
     }
 
     public String generateToken(String username, String category) {
@@ -53,20 +69,43 @@ public class JwtUtil {
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMillis))
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            // A token without exp would never expire, here or in the cache
+            throw new MalformedJwtException("Token has no expiration");
+        }
+        return new VerifiedToken(claims.getId(), claims.getSubject(), claims.get("category", String.class), claims.getExpiration().toInstant());
+    }
+
+    // Drops expired entries first and then arbitrary ones; a full cache only costs extra verifications
+    private void makeRoom() {
+        if (verified.size() < verifiedCacheSize) {
+            return;
+        }
+        Instant now = Instant.now();
+        verified.values().removeIf(token -> token.isExpired(now));
+        Iterator<String> digests = verified.keySet().iterator();
+        while (verified.size() >= verifiedCacheSize && digests.hasNext()) {
+            digests.next();
+            digests.remove();
+        }
     }
 
-    public String extractCategory(String token) {
-        final Claims claims = extractAllClaims(token);
-        return claims.get("category", String.class);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
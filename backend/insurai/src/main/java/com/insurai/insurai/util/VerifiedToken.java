@@ -0,0 +1,12 @@
+package com.insurai.insurai.util;
+
+import java.time.Instant;
+
+// What a JWT with a valid signature and an exp still in the future says about its holder; tokenId is
+// the jti that logout revokes (null for tokens issued before jti was added)
+public record VerifiedToken(String tokenId, String username, String category, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,79 @@
+package com.insurai.insurai.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AsyncConfigTest {
+
+    @Test
+    void saturatedFanoutIsDroppedAndCountedNotRunOnTheCaller() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Executor fanout = new AsyncConfig().fanoutExecutor(meterRegistry, 1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        AtomicInteger ranOnCaller = new AtomicInteger();
+        Runnable work = () -> {
+            if (Thread.currentThread() == caller) {
+                ranOnCaller.incrementAndGet();
+            }
+        };
+
+        fanout.execute(() -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        fanout.execute(work);
+        fanout.execute(work);
+        fanout.execute(work);
+
+        assertEquals(0, ranOnCaller.get());
+        assertEquals(2.0, meterRegistry.get("notifications.fanout.rejected").counter().count());
+        release.countDown();
+        ((ThreadPoolTaskExecutor) fanout).shutdown();
+    }
+
+    @Test
+    void saturatedSseSendIsRejectedSoSpringCancelsTheStream() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AsyncTaskExecutor send = new AsyncConfig().mvcAsyncExecutor(meterRegistry, 1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sent = new CountDownLatch(1);
+
+        send.execute(() -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        send.execute(sent::countDown);
+
+        assertThrows(RejectedExecutionException.class, () -> send.execute(sent::countDown));
+        assertEquals(1.0, meterRegistry.get("notifications.sse.rejected").counter().count());
+        release.countDown();
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        ((ThreadPoolTaskExecutor) send).shutdown();
+    }
+}
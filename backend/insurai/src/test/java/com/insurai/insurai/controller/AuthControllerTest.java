@@ -0,0 +1,192 @@
+package com.insurai.insurai.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurai.insurai.model.User;
+import com.insurai.insurai.model.UserCategory;
+import com.insurai.insurai.repository.UserRepository;
+import com.insurai.insurai.util.JwtUtil;
+
+// One login thread and a short queue: a storm of logins is either queued briefly or rejected with 429,
+// while everything else keeps the remaining CPU. Route rate limits are off so only the executor pushes back.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "security.login.threads=1",
+    "security.login.queue-capacity=4",
+    "security.rate-limit.routes="
+})
+class AuthControllerTest {
+
+    private static final String LOGIN_BODY = "{\"email\":\"%s\",\"password\":\"secret-password\",\"category\":\"USER\"}";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void loginRehashesPasswordsStoredAtAnOlderStrength() throws Exception {
+        User user = saveUser("rehash@example.com", new BCryptPasswordEncoder(4).encode("secret-password"));
+
+        assertEquals(200, login("rehash@example.com").statusCode());
+
+        String rehashed = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertTrue(rehashed.startsWith("$2a$10$"), rehashed);
+        assertTrue(passwordEncoder.matches("secret-password", rehashed));
+        assertEquals(200, login("rehash@example.com").statusCode());
+        assertEquals(rehashed, userRepository.findById(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void refreshTokensRotateAndLogoutEndsTheSession() throws Exception {
+        User user = saveUser("session@example.com", passwordEncoder.encode("secret-password"));
+        JsonNode session = objectMapper.readTree(login("session@example.com").body());
+        String firstRefresh = session.get("refreshToken").asText();
+
+        HttpResponse<String> refreshed = post("/api/auth/refresh", null, "{\"refreshToken\":\"" + firstRefresh + "\"}");
+        assertEquals(200, refreshed.statusCode());
+        String accessToken = objectMapper.readTree(refreshed.body()).get("token").asText();
+        String secondRefresh = objectMapper.readTree(refreshed.body()).get("refreshToken").asText();
+        assertEquals(200, unreadCount(user, accessToken).statusCode());
+
+        // Replaying a used refresh token is treated as theft and ends the whole family
+        assertEquals(401, post("/api/auth/refresh", null, "{\"refreshToken\":\"" + firstRefresh + "\"}").statusCode());
+        assertEquals(401, post("/api/auth/refresh", null, "{\"refreshToken\":\"" + secondRefresh + "\"}").statusCode());
+
+        JsonNode next = objectMapper.readTree(login("session@example.com").body());
+        String nextAccess = next.get("token").asText();
+        String nextRefresh = next.get("refreshToken").asText();
+        assertEquals(200, post("/api/auth/logout", nextAccess, "{\"refreshToken\":\"" + nextRefresh + "\"}").statusCode());
+        assertEquals(401, unreadCount(user, nextAccess).statusCode());
+        assertEquals(401, post("/api/auth/refresh", null, "{\"refreshToken\":\"" + nextRefresh + "\"}").statusCode());
+        // The access token from the other login is still good until it expires
+        assertEquals(200, unreadCount(user, accessToken).statusCode());
+    }
+
+    @Test
+    void otherEndpointsKeepTheirLatencyDuringALoginStorm() throws Exception {
+        User user = saveUser("storm@example.com", passwordEncoder.encode("secret-password"));
+        HttpRequest probe = HttpRequest.newBuilder(uri("/api/notifications/" + user.getId() + "/unread/count"))
+                .header("Authorization", "Bearer " + jwtUtil.generateToken(user.getEmail(), "USER"))
+                .build();
+        p99Millis(probe);
+        double baseline = p99Millis(probe);
+
+        AtomicBoolean storming = new AtomicBoolean(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService stormThreads = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 16; i++) {
+            stormThreads.execute(() -> {
+                while (storming.get()) {
+                    try {
+                        HttpResponse<String> response = login("storm@example.com");
+                        if (response.statusCode() == 429) {
+                            rejected.incrementAndGet();
+                            Thread.sleep(Long.parseLong(response.headers().firstValue("Retry-After").orElseThrow()) * 1_000);
+                        } else {
+                            assertEquals(200, response.statusCode());
+                            accepted.incrementAndGet();
+                        }
+                    } catch (Exception | AssertionError e) {
+                        failures.incrementAndGet();
+                        return;
+                    }
+                }
+            });
+        }
+        Thread.sleep(1_000);
+        double duringStorm = p99Millis(probe);
+        storming.set(false);
+        stormThreads.shutdown();
+        stormThreads.awaitTermination(30, TimeUnit.SECONDS);
+
+        assertEquals(0, failures.get());
+        assertTrue(accepted.get() > 0, "logins should still be served during the storm");
+        assertTrue(rejected.get() > 0, "saturated login executor should reject");
+        assertTrue(duringStorm < Math.max(baseline * 10, 100),
+                String.format("unread-count p99: %.1f ms alone, %.1f ms during the storm", baseline, duringStorm));
+    }
+
+    private double p99Millis(HttpRequest request) throws Exception {
+        long[] latencies = new long[300];
+        for (int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies[i] = System.nanoTime() - start;
+            assertEquals(200, response.statusCode());
+        }
+        Arrays.sort(latencies);
+        return latencies[(int) (latencies.length * 0.99)] / 1e6;
+    }
+
+    private HttpResponse<String> login(String email) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(String.format(LOGIN_BODY, email)))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String accessToken, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (accessToken != null) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> unreadCount(User user, String accessToken) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/notifications/" + user.getId() + "/unread/count"))
+                .header("Authorization", "Bearer " + accessToken)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private User saveUser(String email, String passwordHash) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .password(passwordHash)
+                .category(UserCategory.USER)
+                .build());
+    }
+}
@@ -0,0 +1,412 @@
+package com.insurai.insurai.handler;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.repository.NotificationRepository;
+import com.insurai.insurai.security.JwtHandshakeInterceptor;
+import com.insurai.insurai.service.NotificationFrameEncoder;
+import com.insurai.insurai.service.NotificationReplayLog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationWebSocketHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final NotificationReplayLog replayLog = new NotificationReplayLog(new NotificationFrameEncoder(objectMapper),
+            notificationRepository, 3, 600_000, 200);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationWebSocketHandler handler = new NotificationWebSocketHandler(replayLog, Runnable::run, meterRegistry, 64 * 1024, 10_000);
+
+    @Test
+    void deliversOnlyToTheOwningUsersSessions() throws Exception {
+        WebSocketSession firstTab = session("user-1");
+        WebSocketSession secondTab = session("user-1");
+        WebSocketSession otherUser = session("user-2");
+        handler.afterConnectionEstablished(firstTab);
+        handler.afterConnectionEstablished(secondTab);
+        handler.afterConnectionEstablished(otherUser);
+
+        handler.send(new NotificationFrame("user-1", "{}"));
+
+        verify(firstTab, times(1)).sendMessage(any(WebSocketMessage.class));
+        verify(secondTab, times(1)).sendMessage(any(WebSocketMessage.class));
+        verify(otherUser, never()).sendMessage(any(WebSocketMessage.class));
+    }
+
+    @Test
+    void closedSessionsAreUnregistered() throws Exception {
+        WebSocketSession tab = session("user-1");
+        handler.afterConnectionEstablished(tab);
+        handler.afterConnectionClosed(tab, CloseStatus.NORMAL);
+
+        handler.send(new NotificationFrame("user-1", "{}"));
+
+        verify(tab, never()).sendMessage(any(WebSocketMessage.class));
+        assertEquals(0, handler.getSessionCount());
+    }
+
+    @Test
+    void deliveryCostDoesNotGrowWithTotalConnections() throws Exception {
+        WebSocketSession target = mock(WebSocketSession.class, withSettings().stubOnly());
+        when(target.getId()).thenReturn("target-session");
+        when(target.isOpen()).thenReturn(true);
+        when(target.getAttributes()).thenReturn(new HashMap<>(Map.of(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE, "target")));
+        handler.afterConnectionEstablished(target);
+        double small = nanosPerDelivery(100);
+        double large = nanosPerDelivery(20_000);
+        // A scan over every session would be about 200x slower at 20000; allow plenty for noise
+        assertTrue(large < small * 10, String.format("%.0f ns with 100 sessions, %.0f ns with 20000", small, large));
+    }
+
+    @Test
+    void dispatchThreadNeverWaitsOnAStalledSocket() throws Exception {
+        ExecutorService sendPool = Executors.newVirtualThreadPerTaskExecutor();
+        NotificationWebSocketHandler limited = new NotificationWebSocketHandler(replayLog, sendPool, meterRegistry, 2048, 1_000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sending = new CountDownLatch(2);
+        AtomicInteger blocked = new AtomicInteger();
+        WebSocketSession timedOut = stalledSession("timed-out", sending, release, blocked);
+        WebSocketSession overflowing = stalledSession("overflowing", sending, release, blocked);
+        CountDownLatch healthyReceived = new CountDownLatch(1);
+        WebSocketSession healthy = session("healthy");
+        doAnswer(invocation -> {
+            healthyReceived.countDown();
+            return null;
+        }).when(healthy).sendMessage(any());
+        limited.afterConnectionEstablished(timedOut);
+        limited.afterConnectionEstablished(overflowing);
+        limited.afterConnectionEstablished(healthy);
+
+        // Every send comes from this one thread, as from the outbox dispatcher or the bus listener
+        long began = System.nanoTime();
+        limited.send(new NotificationFrame("timed-out", "{}"));
+        limited.send(new NotificationFrame("overflowing", "{}"));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        limited.send(new NotificationFrame("healthy", "{}"));
+        assertTrue(healthyReceived.await(500, TimeUnit.MILLISECONDS), "healthy session waited behind a stalled one");
+        assertTrue((System.nanoTime() - began) / 1_000_000 < 500, "send blocked the calling thread");
+        assertEquals(2, blocked.get());
+
+        // Later frames for the stalled sessions only buffer behind their blocked writes
+        String padding = "{\"padding\":\"" + "x".repeat(500) + "\"}";
+        for (int i = 0; i < 5; i++) {
+            limited.send(new NotificationFrame("overflowing", padding));
+        }
+        Thread.sleep(1_200);
+        limited.send(new NotificationFrame("timed-out", "{}"));
+
+        verify(timedOut).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(overflowing).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(healthy, never()).close(any());
+        assertEquals(1, limited.getSessionCount());
+        assertEquals(1.0, meterRegistry.get("notifications.ws.slow.closed").tag("reason", "send-time-limit").counter().count());
+        assertEquals(1.0, meterRegistry.get("notifications.ws.slow.closed").tag("reason", "buffer-limit").counter().count());
+
+        release.countDown();
+        sendPool.shutdown();
+        assertTrue(sendPool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void healthySessionsKeepTheirLatencyWhileOthersStall() throws Exception {
+        ExecutorService sendPool = Executors.newVirtualThreadPerTaskExecutor();
+        NotificationWebSocketHandler limited = new NotificationWebSocketHandler(replayLog, sendPool, meterRegistry, 64 * 1024, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sending = new CountDownLatch(3);
+        AtomicInteger blocked = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 20; i++) {
+            limited.afterConnectionEstablished(recordingSession("healthy-" + i, latencies));
+        }
+        for (int i = 0; i < 3; i++) {
+            limited.afterConnectionEstablished(stalledSession("slow-" + i, sending, release, blocked));
+        }
+
+        String payload = "{\"sentAt\":%d,\"padding\":\"" + "x".repeat(200) + "\"}";
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 3; i++) {
+                limited.send(new NotificationFrame("slow-" + i, String.format(payload, System.nanoTime())));
+            }
+            for (int i = 0; i < 20; i++) {
+                limited.send(new NotificationFrame("healthy-" + i, String.format(payload, System.nanoTime())));
+            }
+            Thread.sleep(5);
+        }
+        await().atMost(Duration.ofSeconds(5)).until(() -> latencies.size() == 20 * 50);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99Micros = sorted.get((int) (sorted.size() * 0.99)) / 1_000;
+        assertEquals(3, blocked.get(), "stalled writes should still be blocked");
+        assertTrue(p99Micros < 100_000, "healthy p99 " + p99Micros + " us with 3 stalled clients");
+
+        release.countDown();
+        sendPool.shutdown();
+        assertTrue(sendPool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void writeTheContainerGaveUpOnClosesTheSession() throws Exception {
+        WebSocketSession blocked = session("user-1");
+        doThrow(new SocketTimeoutException("blocking send timed out")).when(blocked).sendMessage(any());
+        handler.afterConnectionEstablished(blocked);
+
+        handler.send(new NotificationFrame("user-1", "{}"));
+        handler.send(new NotificationFrame("user-1", "{}"));
+
+        // Only the first frame waited on the stalled socket; the session was dropped after it
+        verify(blocked, times(1)).sendMessage(any(WebSocketMessage.class));
+        verify(blocked).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, handler.getSessionCount());
+    }
+
+    @Test
+    void reconnectingClientGetsOnlyTheFramesItMissed() throws Exception {
+        WebSocketSession first = session("user-1");
+        handler.afterConnectionEstablished(first);
+        publish("n-1");
+        JsonNode lastSeen = received(first).get(0);
+        handler.afterConnectionClosed(first, CloseStatus.GOING_AWAY);
+
+        publish("n-2");
+        publish("n-3");
+        WebSocketSession resumed = resumingSession("user-1", lastSeen.get("epoch").asText(), lastSeen.get("seq").asLong(), "n-1");
+        handler.afterConnectionEstablished(resumed);
+        publish("n-4");
+
+        List<JsonNode> frames = received(resumed);
+        assertEquals(List.of("n-2", "n-3", "n-4"), frames.stream().map(f -> f.get("id").asText()).toList());
+        assertTrue(frames.get(0).get("seq").asLong() < frames.get(1).get("seq").asLong());
+        assertTrue(frames.get(1).get("seq").asLong() < frames.get(2).get("seq").asLong());
+        verify(notificationRepository, never()).findNewerThan(anyString(), any(), anyString(), any());
+    }
+
+    @Test
+    void overflowedRingFallsBackToTheDatabase() throws Exception {
+        WebSocketSession first = session("user-1");
+        handler.afterConnectionEstablished(first);
+        publish("n-1");
+        JsonNode lastSeen = received(first).get(0);
+        handler.afterConnectionClosed(first, CloseStatus.GOING_AWAY);
+
+        // ring capacity is 3, so n-2 is pushed out by the time the client returns
+        for (int i = 2; i <= 5; i++) {
+            publish("n-" + i);
+        }
+        when(notificationRepository.findById("n-1")).thenReturn(Optional.of(notification("n-1")));
+        when(notificationRepository.findNewerThan(eq("user-1"), any(), eq("n-1"), any()))
+                .thenReturn(List.of(notification("n-5"), notification("n-4"), notification("n-3"), notification("n-2")));
+
+        WebSocketSession resumed = resumingSession("user-1", lastSeen.get("epoch").asText(), lastSeen.get("seq").asLong(), "n-1");
+        handler.afterConnectionEstablished(resumed);
+
+        assertEquals(List.of("n-2", "n-3", "n-4", "n-5"),
+                received(resumed).stream().map(f -> f.get("id").asText()).toList());
+    }
+
+    @Test
+    void clientFromAnotherEpochIsCaughtUpFromTheDatabase() throws Exception {
+        when(notificationRepository.findById("old")).thenReturn(Optional.of(notification("old")));
+        when(notificationRepository.findNewerThan(eq("user-1"), any(), eq("old"), any())).thenReturn(List.of(notification("new")));
+
+        WebSocketSession resumed = resumingSession("user-1", "previous-process", 42, "old");
+        handler.afterConnectionEstablished(resumed);
+
+        List<JsonNode> frames = received(resumed);
+        assertEquals(1, frames.size());
+        assertEquals("new", frames.get(0).get("id").asText());
+        assertEquals(replayLog.getEpoch(), frames.get(0).get("epoch").asText());
+    }
+
+    @Test
+    void aSlowDeliveryHoldsUpOnlyItsOwnUser() throws Exception {
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService slowPublisher = Executors.newSingleThreadExecutor();
+        slowPublisher.execute(() -> {
+            try {
+                replayLog.publish(notification("slow"), frame -> {
+                    delivering.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+        // Enough users that some share a map bin with user-1; none of them waits for its delivery
+        long began = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            Notification other = notification("other-" + i);
+            other.setUserId("other-user-" + i);
+            replayLog.publish(other, frame -> { });
+            replayLog.attach("other-user-" + i, null, missed -> { });
+        }
+        replayLog.evictIdle();
+        assertTrue((System.nanoTime() - began) / 1_000_000 < 1_000, "other users waited on user-1's delivery");
+
+        release.countDown();
+        slowPublisher.shutdown();
+        assertTrue(slowPublisher.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void idleUserLogsAreEvicted() throws Exception {
+        NotificationReplayLog shortLived = new NotificationReplayLog(new NotificationFrameEncoder(objectMapper),
+                notificationRepository, 3, 50, 200);
+        shortLived.publish(notification("n-1"), frame -> { });
+        assertEquals(1, shortLived.size());
+        Thread.sleep(100);
+        shortLived.evictIdle();
+        assertEquals(0, shortLived.size());
+
+        // A user that comes back gets a fresh log rather than the evicted one
+        shortLived.publish(notification("n-2"), frame -> { });
+        assertEquals(1, shortLived.size());
+    }
+
+    private void publish(String id) throws Exception {
+        replayLog.publish(notification(id), handler::send);
+    }
+
+    private List<JsonNode> received(WebSocketSession session) throws Exception {
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, Mockito.atLeast(0)).sendMessage(sent.capture());
+        List<JsonNode> frames = new ArrayList<>();
+        for (WebSocketMessage<?> message : sent.getAllValues()) {
+            frames.add(objectMapper.readTree(message.getPayload().toString()));
+        }
+        return frames;
+    }
+
+    private static Notification notification(String id) {
+        return Notification.builder()
+                .id(id)
+                .userId("user-1")
+                .type("TEST")
+                .message(id)
+                .timestamp(LocalDateTime.of(2030, 1, 1, 0, 0))
+                .build();
+    }
+
+    private static WebSocketSession resumingSession(String userId, String epoch, long lastSeq, String lastId) {
+        WebSocketSession session = session(userId);
+        when(session.getUri()).thenReturn(URI.create("ws://localhost/ws/notifications?epoch=" + epoch
+                + "&lastSeq=" + lastSeq + "&lastId=" + lastId));
+        return session;
+    }
+
+    private double nanosPerDelivery(int totalSessions) throws Exception {
+        for (int i = handler.getSessionCount(); i < totalSessions; i++) {
+            handler.afterConnectionEstablished(idleSession("bystander-" + i));
+        }
+        NotificationFrame frame = new NotificationFrame("target", "{}");
+        int rounds = 50_000;
+        for (int i = 0; i < rounds; i++) {
+            handler.send(frame);
+        }
+        long began = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            handler.send(frame);
+        }
+        return (System.nanoTime() - began) / (double) rounds;
+    }
+
+    private static WebSocketSession session(String userId) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE, userId);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.getId()).thenReturn(UUID.randomUUID().toString());
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private static WebSocketSession recordingSession(String userId, List<Long> latencies) throws Exception {
+        WebSocketSession session = session(userId);
+        doAnswer(invocation -> {
+            String payload = ((WebSocketMessage<?>) invocation.getArgument(0)).getPayload().toString();
+            long sentAt = Long.parseLong(payload.substring(payload.indexOf(':') + 1, payload.indexOf(',')));
+            latencies.add(System.nanoTime() - sentAt);
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+
+    // A client that stopped reading: its first write blocks until released
+    private static WebSocketSession stalledSession(String userId, CountDownLatch sending, CountDownLatch release,
+                                                   AtomicInteger blocked) throws Exception {
+        WebSocketSession session = session(userId);
+        doAnswer(invocation -> {
+            blocked.incrementAndGet();
+            sending.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            blocked.decrementAndGet();
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+
+    // Lightweight stand-in for connections that never receive anything in the benchmark
+    private static WebSocketSession idleSession(String userId) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE, userId);
+        return new StandardWebSocketSession(null, attributes, null, null) {
+            @Override
+            public URI getUri() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.insurai.insurai.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.insurai.insurai.dto.OnlineAgentDTO;
+import com.insurai.insurai.model.AgentAvailability;
+import com.insurai.insurai.model.User;
+import com.insurai.insurai.model.UserCategory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AgentAvailabilityRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 1);
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 7);
+
+    @Autowired
+    private AgentAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void onlineAgentsQueryCountDoesNotGrowWithSlots() {
+        assertEquals(1, countStatementsForOnlineAgents(5));
+        assertEquals(1, countStatementsForOnlineAgents(200));
+    }
+
+    @Test
+    void onlineAgentsFiltersByDateAndCategory() {
+        User agent = persistUser("agent@insurai.test", UserCategory.AGENT);
+        User admin = persistUser("admin@insurai.test", UserCategory.ADMIN);
+        persistSlot(agent.getId(), DATE, "Available");
+        persistSlot(agent.getId(), DATE.plusDays(1), "Available");
+        persistSlot(agent.getId(), DATE, "Booked");
+        persistSlot(admin.getId(), DATE, "Available");
+        persistSlot(agent.getId(), TODAY.minusDays(1), "Available");
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OnlineAgentDTO> onDate = availabilityRepository.findOnlineAgents("Available", TODAY, DATE, null);
+        assertEquals(2, onDate.size());
+
+        List<OnlineAgentDTO> agentsOnDate = availabilityRepository.findOnlineAgents("Available", TODAY, DATE, UserCategory.AGENT);
+        assertEquals(1, agentsOnDate.size());
+        assertEquals("Jane Doe", agentsOnDate.get(0).getFullName());
+        assertEquals("agent@insurai.test", agentsOnDate.get(0).getEmail());
+
+        List<OnlineAgentDTO> all = availabilityRepository.findOnlineAgents("Available", TODAY, null, null);
+        assertEquals(3, all.size());
+    }
+
+    @Test
+    void bookedSlotsArePagedWithinDateRange() {
+        User agent = persistUser("pager@insurai.test", UserCategory.AGENT);
+        for (int i = 0; i < 10; i++) {
+            persistSlot(agent.getId(), DATE.plusDays(i), "Booked");
+        }
+        persistSlot(agent.getId(), DATE, "Available");
+        entityManager.flush();
+        entityManager.clear();
+
+        PageRequest firstPage = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "availabilityDate", "startTime"));
+        List<AgentAvailability> page = availabilityRepository.findByAgentIdAndStatusBetweenDates(
+                agent.getId(), "Booked", DATE.plusDays(2), DATE.plusDays(7), firstPage);
+        assertEquals(3, page.size());
+        assertEquals(DATE.plusDays(7), page.get(0).getAvailabilityDate());
+
+        List<AgentAvailability> unbounded = availabilityRepository.findByAgentIdAndStatusBetweenDates(
+                agent.getId(), "Booked", null, null, PageRequest.of(0, 50));
+        assertEquals(10, unbounded.size());
+    }
+
+    private long countStatementsForOnlineAgents(int slots) {
+        availabilityRepository.deleteAll();
+        for (int i = 0; i < slots; i++) {
+            User agent = persistUser("agent" + slots + "-" + i + "@insurai.test", UserCategory.AGENT);
+            persistSlot(agent.getId(), DATE, "Available");
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        List<OnlineAgentDTO> agents = availabilityRepository.findOnlineAgents("Available", TODAY, null, null);
+        assertEquals(slots, agents.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User persistUser(String email, UserCategory category) {
+        User user = User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("Jane")
+                .lastName("Doe")
+                .phone("555-0100")
+                .category(category)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private void persistSlot(String agentId, LocalDate date, String status) {
+        AgentAvailability slot = new AgentAvailability();
+        slot.setAgentId(agentId);
+        slot.setAvailabilityDate(date);
+        slot.setStartTime(LocalTime.of(9, 0));
+        slot.setEndTime(LocalTime.of(17, 0));
+        slot.setStatus(status);
+        entityManager.persist(slot);
+    }
+}
@@ -0,0 +1,115 @@
+package com.insurai.insurai.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.insurai.insurai.model.Notification;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NotificationRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void keysetPagesVisitEveryRowOnceEvenWithEqualTimestamps() {
+        // Three rows per timestamp so page boundaries fall inside ties
+        generate("walk-user", 50, 3);
+        generate("other-user", 10, 1);
+
+        Set<String> seen = new HashSet<>();
+        List<Notification> page = notificationRepository.findFirstPage("walk-user", PageRequest.of(0, 7));
+        while (!page.isEmpty()) {
+            for (Notification n : page) {
+                assertEquals("walk-user", n.getUserId());
+                assertTrue(seen.add(n.getId()), "row returned twice: " + n.getId());
+            }
+            Notification last = page.get(page.size() - 1);
+            page = notificationRepository.findPageBefore("walk-user", last.getTimestamp(), last.getId(), PageRequest.of(0, 7));
+        }
+        assertEquals(150, seen.size());
+    }
+
+    // Timing only; run with -Pbenchmarks
+    @Test
+    @Tag("benchmark")
+    void benchmarkPageFetchAgainstHistoryDepth() {
+        int rows = 50_000;
+        int pageSize = 50;
+        generate("deep-user", rows, 1);
+        List<Notification> all = notificationRepository.findFirstPage("deep-user", PageRequest.of(0, rows));
+        // keep the persistence context small so flush-before-query does not dominate the timings
+        entityManager.clear();
+
+        long start = System.nanoTime();
+        assertEquals(rows, notificationRepository.findByUserIdOrderByTimestampDesc("deep-user").size());
+        System.out.printf("full notification history of %d rows: %d us%n", rows, (System.nanoTime() - start) / 1_000);
+        entityManager.clear();
+
+        for (int depth : new int[] { 0, rows / 2, rows - 2 * pageSize }) {
+            Notification anchor = all.get(depth);
+            // warm up, then time the same page fetch keyset-style and offset-style
+            for (int i = 0; i < 200; i++) {
+                notificationRepository.findPageBefore("deep-user", anchor.getTimestamp(), anchor.getId(), PageRequest.of(0, pageSize));
+                notificationRepository.findFirstPage("deep-user", PageRequest.of(depth / pageSize, pageSize));
+                entityManager.clear();
+            }
+            int rounds = 100;
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                List<Notification> page = notificationRepository.findPageBefore("deep-user", anchor.getTimestamp(), anchor.getId(), PageRequest.of(0, pageSize));
+                assertEquals(all.get(depth + 1).getId(), page.get(0).getId());
+                entityManager.clear();
+            }
+            long keysetMicros = (System.nanoTime() - start) / rounds / 1_000;
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                notificationRepository.findFirstPage("deep-user", PageRequest.of(depth / pageSize, pageSize));
+                entityManager.clear();
+            }
+            long offsetMicros = (System.nanoTime() - start) / rounds / 1_000;
+            System.out.printf("notification page at depth %d of %d: keyset %d us, offset %d us%n",
+                    depth, rows, keysetMicros, offsetMicros);
+        }
+    }
+
+    private void generate(String userId, int timestamps, int perTimestamp) {
+        List<Object[]> batch = new ArrayList<>(timestamps * perTimestamp);
+        for (int t = 0; t < timestamps; t++) {
+            Timestamp at = Timestamp.valueOf(START.plusSeconds(t));
+            for (int r = 0; r < perTimestamp; r++) {
+                batch.add(new Object[] { UUID.randomUUID().toString(), userId, "NEW_CLAIM", "generated", false, at });
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notifications (id, user_id, type, message, is_read, timestamp) VALUES (?, ?, ?, ?, ?, ?)",
+                batch);
+    }
+}
@@ -0,0 +1,158 @@
+package com.insurai.insurai.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.insurai.insurai.model.User;
+import com.insurai.insurai.model.UserCategory;
+import com.insurai.insurai.repository.UserRepository;
+import com.insurai.insurai.util.JwtUtil;
+import com.insurai.insurai.util.VerifiedToken;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user = userRepository.findByEmail("jwt-filter@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("jwt-filter@example.com")
+                .password("unused")
+                .category(UserCategory.AGENT)
+                .build()));
+        token = jwtUtil.generateToken(user.getEmail(), user.getCategory().toString());
+        principalCache.invalidateAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Loads the cached unread count so the endpoint itself issues no further queries
+        authenticate(mockMvc(new JwtAuthenticationFilter(jwtUtil, principalCache, revocationList, "claims")));
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void claimsModeAuthenticatesFromTheTokenWithoutTouchingTheDatabase() throws Exception {
+        Authentication authentication = authenticate(mockMvc(new JwtAuthenticationFilter(jwtUtil, principalCache, revocationList, "claims")));
+
+        assertEquals(user.getEmail(), authentication.getName());
+        assertEquals(List.of("ROLE_AGENT"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void revokedTokensAreRejectedWithoutTouchingTheDatabase() throws Exception {
+        MockMvc mockMvc = mockMvc(new JwtAuthenticationFilter(jwtUtil, principalCache, revocationList, "claims"));
+        VerifiedToken verified = jwtUtil.verify(token);
+        revocationList.revoke(verified.tokenId(), verified.expiresAt());
+        statistics.clear();
+
+        assertNull(authenticate(mockMvc));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        // Other tokens of the same user are unaffected
+        token = jwtUtil.generateToken(user.getEmail(), user.getCategory().toString());
+        assertNotNull(authenticate(mockMvc));
+    }
+
+    @Test
+    void databaseModeCachesPrincipalsUntilInvalidated() throws Exception {
+        MockMvc mockMvc = mockMvc(new JwtAuthenticationFilter(jwtUtil, principalCache, revocationList, "database"));
+
+        Authentication authentication = authenticate(mockMvc);
+        authenticate(mockMvc);
+        assertEquals(List.of("ROLE_AGENT"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        principalCache.invalidate(user.getEmail());
+        authenticate(mockMvc);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    // Throughput of a simple authenticated GET (cached unread count) through the JWT filter and MVC.
+    // Timing only; the statement counts above cover the behaviour. Run with -Pbenchmarks
+    @Test
+    @Tag("benchmark")
+    void claimsModeThroughput() throws Exception {
+        UserPrincipalCache uncached = new UserPrincipalCache(userDetailsService, 0, 1);
+        double perUserLookup = requestsPerSecond(mockMvc(new JwtAuthenticationFilter(jwtUtil, uncached, revocationList, "database")));
+        double cached = requestsPerSecond(mockMvc(new JwtAuthenticationFilter(jwtUtil, principalCache, revocationList, "database")));
+        double claims = requestsPerSecond(mockMvc(new JwtAuthenticationFilter(jwtUtil, principalCache, revocationList, "claims")));
+
+        System.out.printf("authenticated GET: %.0f req/s with a user lookup per request, %.0f req/s with the principal cache, "
+                + "%.0f req/s claims-only%n", perUserLookup, cached, claims);
+    }
+
+    private MockMvc mockMvc(JwtAuthenticationFilter filter) {
+        return MockMvcBuilders.webAppContextSetup(context).addFilters(filter).build();
+    }
+
+    private Authentication authenticate(MockMvc mockMvc) throws Exception {
+        mockMvc.perform(get("/api/notifications/{userId}/unread/count", user.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private double requestsPerSecond(MockMvc mockMvc) throws Exception {
+        for (int i = 0; i < 500; i++) {
+            authenticate(mockMvc);
+        }
+        int requests = 2_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            authenticate(mockMvc);
+        }
+        return requests / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,141 @@
+package com.insurai.insurai.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.insurai.insurai.util.JwtUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void bucketsAllowABurstThenRefillAtTheConfiguredRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60, 100, clock::get);
+
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0, limiter.tryAcquire("ip:10.0.0.1"));
+        }
+        long wait = limiter.tryAcquire("ip:10.0.0.1");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+        assertEquals(0, limiter.tryAcquire("ip:10.0.0.2"));
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("ip:10.0.0.1"));
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1") > 0);
+    }
+
+    @Test
+    void refilledBucketsAreEvictedAndNewKeysShareAnOverflowBucketWhenFull() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 3, clock::get);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        limiter.tryAcquire("c");
+        assertEquals(3, limiter.size());
+
+        // Beyond max-keys every new key draws from the same bucket
+        assertEquals(0, limiter.tryAcquire("d"));
+        assertEquals(0, limiter.tryAcquire("e"));
+        assertTrue(limiter.tryAcquire("f") > 0);
+        assertEquals(4, limiter.size());
+
+        assertEquals(0, limiter.evictIdle());
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertEquals(4, limiter.evictIdle());
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void limitsApplyPerClientIpAndPerUser() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil(60_000, 100);
+        RateLimitFilter filter = new RateLimitFilter(jwtUtil, new SimpleMeterRegistry(), "/api/voice-query=2", 100);
+        String token = jwtUtil.generateToken("agent@example.com", "AGENT");
+
+        assertEquals(200, call(filter, "/api/voice-query", "10.0.0.1", token));
+        assertEquals(200, call(filter, "/api/voice-query", "10.0.0.2", token));
+        // Fresh IP, but the user has spent both tokens
+        MockHttpServletResponse rejected = response(filter, "/api/voice-query", "10.0.0.3", token);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader("Retry-After"));
+        assertEquals(200, call(filter, "/api/voice-query", "10.0.0.3", null));
+        assertEquals(200, call(filter, "/api/voice-query", "10.0.0.1", null));
+        assertEquals(429, call(filter, "/api/voice-query", "10.0.0.1", null));
+        assertEquals(200, call(filter, "/api/claims", "10.0.0.1", null));
+    }
+
+    // Filter overhead with 8 threads hammering one limited route: across 10,000 client IPs (no contention
+    // on a bucket), from a single hot IP (every CAS contends), and on an unlimited path for comparison.
+    // Timing only; run with -Pbenchmarks
+    @Test
+    @Tag("benchmark")
+    void filterOverheadUnderConcurrency() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new JwtUtil(60_000, 100), new SimpleMeterRegistry(),
+                "/api/auth/login=" + Integer.MAX_VALUE, 100_000);
+        measure(filter, "/api/auth/login", 10_000);
+        System.out.printf("rate limit filter, 8 threads: %d ns/request across 10000 IPs, %d ns/request from one IP, "
+                        + "%d ns/request on an unlimited path%n",
+                measure(filter, "/api/auth/login", 10_000), measure(filter, "/api/auth/login", 1),
+                measure(filter, "/api/claims", 10_000));
+    }
+
+    private static long measure(RateLimitFilter filter, String path, int clients) throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        MockHttpServletRequest[] requests = new MockHttpServletRequest[clients];
+        for (int i = 0; i < clients; i++) {
+            requests[i] = new MockHttpServletRequest("POST", path);
+            requests[i].setRemoteAddr("10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255));
+        }
+        FilterChain passThrough = (request, response) -> { };
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            pool.execute(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        filter.doFilter(requests[(offset * 7_919 + i) % clients], new MockHttpServletResponse(), passThrough);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        return elapsed / ((long) threads * perThread);
+    }
+
+    private static int call(RateLimitFilter filter, String path, String ip, String token) throws Exception {
+        return response(filter, path, ip, token).getStatus();
+    }
+
+    private static MockHttpServletResponse response(RateLimitFilter filter, String path, String ip, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(ip);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+}
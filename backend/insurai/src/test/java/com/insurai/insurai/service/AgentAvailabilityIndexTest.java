@@ -0,0 +1,146 @@
+package com.insurai.insurai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.insurai.insurai.dto.FreeWindowDTO;
+import com.insurai.insurai.model.AgentAvailability;
+import com.insurai.insurai.model.AgentAvailabilityBreak;
+
+class AgentAvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    private final AgentAvailabilityIndex index = new AgentAvailabilityIndex(null);
+
+    @Test
+    void breaksAreSubtractedFromFreeTime() {
+        index.add(slot(1, "a1", 9, 17, LocalTime.of(12, 30), LocalTime.of(13, 0)));
+
+        assertEquals(List.of("a1"), index.findFreeAgents(at(10, 0), at(12, 0)));
+        assertEquals(List.of(), index.findFreeAgents(at(12, 0), at(13, 0)));
+        assertEquals(List.of("a1"), index.findFreeAgents(at(13, 0), at(17, 0)));
+        assertEquals(List.of(), index.findFreeAgents(at(16, 0), at(17, 30)));
+    }
+
+    @Test
+    void bookedSlotsDropOutOfTheIndex() {
+        index.add(slot(1, "a1", 9, 12));
+        index.add(slot(2, "a2", 9, 12));
+
+        index.remove(1);
+
+        assertEquals(List.of("a2"), index.findFreeAgents(at(9, 0), at(10, 0)));
+    }
+
+    @Test
+    void adjacentSlotsMergeIntoOneWindow() {
+        index.add(slot(1, "a1", 9, 11));
+        index.add(slot(2, "a1", 11, 13));
+
+        assertEquals(List.of("a1"), index.findFreeAgents(at(10, 0), at(12, 0)));
+    }
+
+    @Test
+    void nextFreeWindowSkipsWindowsThatAreTooShort() {
+        index.add(slot(1, "a1", 9, 17, LocalTime.of(9, 20), LocalTime.of(14, 0)));
+
+        FreeWindowDTO window = index.findNextFreeWindow("a1", at(8, 0), Duration.ofMinutes(30));
+        assertEquals(at(14, 0), window.getStart());
+        assertEquals(at(17, 0), window.getEnd());
+
+        FreeWindowDTO inside = index.findNextFreeWindow("a1", at(15, 0), Duration.ofMinutes(30));
+        assertEquals(at(15, 0), inside.getStart());
+
+        assertNull(index.findNextFreeWindow("a1", at(16, 45), Duration.ofMinutes(30)));
+        assertNull(index.findNextFreeWindow("unknown", at(8, 0), Duration.ZERO));
+    }
+
+    @Test
+    void daysAreDroppedOnceTheirLastWindowIsRemoved() {
+        int id = 0;
+        for (int d = 0; d < 30; d++) {
+            for (int a = 0; a < 3; a++) {
+                AgentAvailability slot = slot(++id, "agent-" + a, 9, 17);
+                slot.setAvailabilityDate(DAY.plusDays(d));
+                index.add(slot);
+            }
+        }
+        assertEquals(30, index.dayCount());
+
+        // What the expiry sweeper does for past days: every slot of the first 29 days goes
+        for (int slotId = 1; slotId <= 29 * 3; slotId++) {
+            index.remove(slotId);
+        }
+        assertEquals(1, index.dayCount());
+        assertEquals(List.of(), index.findFreeAgents(at(10, 0), at(11, 0)));
+
+        // A removed day can be filled again
+        index.add(slot(++id, "agent-0", 9, 17));
+        assertEquals(List.of("agent-0"), index.findFreeAgents(at(10, 0), at(11, 0)));
+        assertEquals(2, index.dayCount());
+    }
+
+    @Test
+    void freeAgentLookupOnlyVisitsTheRequestedDay() {
+        int agents = 2_000;
+        int id = 0;
+        for (int a = 0; a < agents; a++) {
+            // Odd agents are on a break during the queried hour
+            LocalTime breakStart = a % 2 == 0 ? LocalTime.of(12, 30) : LocalTime.of(10, 0);
+            for (int d = 0; d < 20; d++) {
+                AgentAvailability slot = slot(++id, "agent-" + a, 9, 17, breakStart, breakStart.plusMinutes(60));
+                slot.setAvailabilityDate(DAY.plusDays(d));
+                index.add(slot);
+            }
+        }
+
+        List<String> free = index.findFreeAgents(at(10, 0), at(11, 0));
+        assertEquals(agents / 2, free.size());
+        assertTrue(free.stream().allMatch(agent -> Integer.parseInt(agent.substring(6)) % 2 == 0));
+        assertEquals(agents, index.findFreeAgents(at(13, 30), at(16, 0)).size());
+        assertTrue(index.findFreeAgents(at(8, 0), at(9, 30)).isEmpty());
+
+        // Generous bound, only meant to catch a lookup that degrades to scanning every agent and day
+        int rounds = 200;
+        long began = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            index.findFreeAgents(at(10, 0), at(11, 0));
+        }
+        long perQueryMicros = (System.nanoTime() - began) / 1_000 / rounds;
+        assertTrue(perQueryMicros < 5_000, perQueryMicros + " us per lookup");
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.atTime(hour, minute);
+    }
+
+    private static AgentAvailability slot(int id, String agentId, int startHour, int endHour, LocalTime... breakBounds) {
+        AgentAvailability slot = new AgentAvailability();
+        slot.setAvailabilityId(id);
+        slot.setAgentId(agentId);
+        slot.setAvailabilityDate(DAY);
+        slot.setStartTime(LocalTime.of(startHour, 0));
+        slot.setEndTime(LocalTime.of(endHour, 0));
+        slot.setStatus("Available");
+        List<AgentAvailabilityBreak> breaks = new ArrayList<>();
+        for (int i = 0; i + 1 < breakBounds.length; i += 2) {
+            AgentAvailabilityBreak brk = new AgentAvailabilityBreak();
+            brk.setBreakStart(breakBounds[i]);
+            brk.setBreakEnd(breakBounds[i + 1]);
+            breaks.add(brk);
+        }
+        slot.setBreaks(breaks);
+        return slot;
+    }
+}
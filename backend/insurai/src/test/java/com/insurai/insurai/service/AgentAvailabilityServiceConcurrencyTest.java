@@ -0,0 +1,126 @@
+package com.insurai.insurai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.insurai.insurai.model.AgentAvailability;
+import com.insurai.insurai.repository.AgentAvailabilityRepository;
+import com.insurai.insurai.repository.NotificationRepository;
+
+@SpringBootTest
+class AgentAvailabilityServiceConcurrencyTest {
+
+    private static final int BOOKERS = 32;
+
+    @Autowired
+    private AgentAvailabilityService availabilityService;
+
+    @Autowired
+    private AgentAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void onlyOneParallelBookingWinsTheSlot() throws Exception {
+        Integer slotId = saveSlot("agent-contended", LocalTime.of(10, 0));
+        long notificationsBefore = notificationRepository.count();
+
+        ExecutorService pool = Executors.newFixedThreadPool(BOOKERS);
+        Map<AgentAvailabilityService.BookingResult, Long> outcome = race(pool, slotId);
+        pool.shutdown();
+
+        // Losers get ALREADY_BOOKED, which the controller answers with 409
+        assertEquals(1L, outcome.get(AgentAvailabilityService.BookingResult.BOOKED));
+        assertEquals(BOOKERS - 1L, outcome.get(AgentAvailabilityService.BookingResult.ALREADY_BOOKED));
+        assertEquals("Booked", availabilityRepository.findById(slotId).orElseThrow().getStatus());
+        // One APPOINTMENT_BOOKED for the winning user and one for the agent
+        assertEquals(notificationsBefore + 2, notificationRepository.count());
+    }
+
+    // Booking throughput under contention: 50 slots in turn, each raced by 32 bookers. Timing only;
+    // run with -Pbenchmarks
+    @Test
+    @Tag("benchmark")
+    void benchmarkContendedBookingThroughput() throws Exception {
+        int slots = 50;
+        List<Integer> slotIds = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            slotIds.add(saveSlot("agent-benchmark-" + i, LocalTime.of(9, 0)));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(BOOKERS);
+        race(pool, saveSlot("agent-warmup", LocalTime.of(9, 0)));
+
+        long began = System.nanoTime();
+        for (Integer slotId : slotIds) {
+            assertEquals(1L, race(pool, slotId).get(AgentAvailabilityService.BookingResult.BOOKED));
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+        System.out.printf("%d contended slots, %d bookers each: %.0f attempts/s, %.0f bookings/s%n",
+                slots, BOOKERS, slots * BOOKERS / seconds, slots / seconds);
+    }
+
+    @Test
+    void bookingUnknownSlotIsNotFound() {
+        assertEquals(AgentAvailabilityService.BookingResult.NOT_FOUND, availabilityService.bookSlot(-1, "user-x"));
+    }
+
+    @Test
+    void bookingExpiredSlotIsNotAvailableRatherThanAlreadyBooked() {
+        AgentAvailability slot = new AgentAvailability();
+        slot.setAgentId("agent-expired");
+        slot.setAvailabilityDate(LocalDate.now().minusDays(1));
+        slot.setStartTime(LocalTime.of(10, 0));
+        slot.setEndTime(LocalTime.of(11, 0));
+        slot.setStatus("Expired");
+        Integer slotId = availabilityRepository.save(slot).getAvailabilityId();
+
+        assertEquals(AgentAvailabilityService.BookingResult.NOT_AVAILABLE, availabilityService.bookSlot(slotId, "user-late"));
+        assertEquals("Expired", availabilityRepository.findById(slotId).orElseThrow().getStatus());
+    }
+
+    private Integer saveSlot(String agentId, LocalTime start) {
+        AgentAvailability slot = new AgentAvailability();
+        slot.setAgentId(agentId);
+        slot.setAvailabilityDate(LocalDate.now().plusDays(1));
+        slot.setStartTime(start);
+        slot.setEndTime(start.plusHours(1));
+        return availabilityRepository.save(slot).getAvailabilityId();
+    }
+
+    // BOOKERS users released at once against the same slot
+    private Map<AgentAvailabilityService.BookingResult, Long> race(ExecutorService pool, Integer slotId) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AgentAvailabilityService.BookingResult>> futures = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            String userId = "user-" + i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                return availabilityService.bookSlot(slotId, userId);
+            }));
+        }
+        start.countDown();
+        List<AgentAvailabilityService.BookingResult> results = new ArrayList<>();
+        for (Future<AgentAvailabilityService.BookingResult> future : futures) {
+            results.add(future.get());
+        }
+        return results.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+}
@@ -0,0 +1,131 @@
+package com.insurai.insurai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.insurai.insurai.dto.AgentAvailabilityRequest;
+import com.insurai.insurai.dto.RecurringAvailabilityRequest;
+import com.insurai.insurai.model.AgentAvailability;
+
+@SpringBootTest
+class AgentAvailabilityServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2031, 1, 6);
+    private static final List<DayOfWeek> WEEKDAYS = List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY,
+            DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+
+    @Autowired
+    private AgentAvailabilityService availabilityService;
+
+    @Autowired
+    private AvailabilityExpirySweeper expirySweeper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recurringScheduleIsExpandedAndBatchInserted() {
+        List<AgentAvailability> slots = availabilityService.saveRecurringAvailability(weekdaySchedule("agent-recurring", 52));
+
+        assertEquals(260, slots.size());
+        assertEquals(260, count("SELECT COUNT(*) FROM agent_availability WHERE agent_id = 'agent-recurring'"));
+        assertEquals(260, count("SELECT COUNT(*) FROM agent_availability_breaks b JOIN agent_availability a "
+                + "ON a.availability_id = b.availability_id WHERE a.agent_id = 'agent-recurring'"));
+    }
+
+    // Timing only; run with -Pbenchmarks
+    @Test
+    @Tag("benchmark")
+    void benchmarkBatchedAgainstOneByOneInserts() {
+        long began = System.nanoTime();
+        List<AgentAvailability> slots = availabilityService.saveRecurringAvailability(weekdaySchedule("agent-batched", 52));
+        double batchedMs = (System.nanoTime() - began) / 1e6;
+
+        began = System.nanoTime();
+        for (AgentAvailability slot : slots) {
+            availabilityService.saveAvailability(singleSlot("agent-one-by-one", slot.getAvailabilityDate()));
+        }
+        double oneByOneMs = (System.nanoTime() - began) / 1e6;
+        System.out.printf("260 slots with breaks: batched %.1f ms (%.0f slots/s), one by one %.1f ms (%.0f slots/s)%n",
+                batchedMs, 260 / (batchedMs / 1e3), oneByOneMs, 260 / (oneByOneMs / 1e3));
+    }
+
+    @Test
+    void recurringScheduleAcceptsExactlyTheMaximumSpan() {
+        RecurringAvailabilityRequest longest = weekdaySchedule("agent-longest", 1);
+        longest.setEndDate(MONDAY.plusDays(365));
+        assertEquals(262, availabilityService.saveRecurringAvailability(longest).size());
+
+        RecurringAvailabilityRequest oneDayOver = weekdaySchedule("agent-one-day-over", 1);
+        oneDayOver.setEndDate(MONDAY.plusDays(366));
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.saveRecurringAvailability(oneDayOver));
+    }
+
+    @Test
+    void recurringScheduleRejectsInvalidRanges() {
+        RecurringAvailabilityRequest tooLong = weekdaySchedule("agent-invalid", 60);
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.saveRecurringAvailability(tooLong));
+
+        RecurringAvailabilityRequest inverted = weekdaySchedule("agent-invalid", 1);
+        inverted.setEndTime(LocalTime.of(8, 0));
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.saveRecurringAvailability(inverted));
+    }
+
+    @Test
+    void sweeperExpiresPastSlotsInBatches() {
+        for (int i = 1; i <= 3; i++) {
+            availabilityService.saveAvailability(singleSlot("agent-past", LocalDate.now().minusDays(i)));
+        }
+        availabilityService.saveAvailability(singleSlot("agent-past", LocalDate.now()));
+
+        expirySweeper.sweep();
+
+        assertEquals(3, count("SELECT COUNT(*) FROM agent_availability WHERE agent_id = 'agent-past' AND status = 'Expired'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM agent_availability WHERE agent_id = 'agent-past' AND status = 'Available'"));
+        assertEquals(0, expirySweeper.sweep());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static RecurringAvailabilityRequest weekdaySchedule(String agentId, int weeks) {
+        RecurringAvailabilityRequest request = new RecurringAvailabilityRequest();
+        request.setAgentId(agentId);
+        request.setStartDate(MONDAY);
+        request.setEndDate(MONDAY.plusWeeks(weeks).minusDays(1));
+        request.setDaysOfWeek(WEEKDAYS);
+        request.setStartTime(LocalTime.of(9, 0));
+        request.setEndTime(LocalTime.of(17, 0));
+        request.setBreaks(List.of(lunch()));
+        return request;
+    }
+
+    private static AgentAvailabilityRequest singleSlot(String agentId, LocalDate date) {
+        AgentAvailabilityRequest request = new AgentAvailabilityRequest();
+        request.setAgentId(agentId);
+        request.setAvailabilityDate(date);
+        request.setStartTime(LocalTime.of(9, 0));
+        request.setEndTime(LocalTime.of(17, 0));
+        request.setBreaks(List.of(lunch()));
+        return request;
+    }
+
+    private static AgentAvailabilityRequest.BreakRequest lunch() {
+        AgentAvailabilityRequest.BreakRequest lunch = new AgentAvailabilityRequest.BreakRequest();
+        lunch.setBreakStart(LocalTime.of(12, 30));
+        lunch.setBreakEnd(LocalTime.of(13, 0));
+        return lunch;
+    }
+}
@@ -0,0 +1,208 @@
+package com.insurai.insurai.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurai.insurai.dto.ClaimPageDTO;
+import com.insurai.insurai.dto.ClaimStatusResultDTO;
+import com.insurai.insurai.model.Claim;
+import com.insurai.insurai.model.User;
+import com.insurai.insurai.model.UserCategory;
+import com.insurai.insurai.repository.ClaimRepository;
+import com.insurai.insurai.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class ClaimServiceTest {
+
+    @Autowired
+    private ClaimService claimService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void newClaimNotifiesAllStaffAsynchronously() {
+        int staff = 150;
+        for (int i = 0; i < staff; i++) {
+            userRepository.save(User.builder()
+                    .email("staff" + i + "@claims.test")
+                    .password("secret")
+                    .category(i % 10 == 0 ? UserCategory.ADMIN : UserCategory.AGENT)
+                    .build());
+        }
+        long staffTotal = userRepository.findIdsByCategoryIn(List.of(UserCategory.AGENT, UserCategory.ADMIN)).size();
+
+        Claim saved = claimService.saveClaim(Claim.builder()
+                .policyId("policy-1")
+                .userId("claimant-1")
+                .description("Fan-out check")
+                .amount(100.0)
+                .dateOfIncident(LocalDate.now())
+                .build());
+
+        assertEquals("Pending", saved.getStatus());
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertEquals(staffTotal,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE type = 'NEW_CLAIM' "
+                        + "AND message LIKE '%Fan-out check'", Long.class)));
+    }
+
+    @Test
+    void claimPagesCostTwoStatementsWhateverTheirSize() throws Exception {
+        List<Claim> claims = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            claims.add(Claim.builder()
+                    .policyId("paged-policy")
+                    .userId("claimant-paged")
+                    .description("Paged claim " + i)
+                    .status(i % 3 == 0 ? "Approved" : "Pending")
+                    .amount(100.0 * i)
+                    .claimType("Health")
+                    .dateFiled(LocalDate.of(2024, 1, 1).plusDays(i / 2))
+                    .dateOfIncident(LocalDate.of(2023, 12, 1))
+                    .documents(new ArrayList<>(List.of("receipt-" + i + ".pdf", "report-" + i + ".pdf", "photo-" + i + ".jpg")))
+                    .build());
+        }
+        claimRepository.saveAll(claims);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Claim> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            ClaimPageDTO page = claimService.getClaimPage(null, "Health", "paged-policy", null, null, null, null, cursor, 20);
+            // Serializing outside the transaction fails on any collection the page did not load
+            objectMapper.writeValueAsString(page);
+            assertEquals(2, statistics.getPrepareStatementCount());
+            page.getItems().forEach(claim -> assertEquals(3, claim.getDocuments().size()));
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(45, seen.size());
+        assertEquals(45, seen.stream().map(Claim::getClaimId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(!seen.get(i).getDateFiled().isAfter(seen.get(i - 1).getDateFiled()), "newest first");
+        }
+
+        ClaimPageDTO approved = claimService.getClaimPage("Approved", null, "paged-policy", LocalDate.of(2024, 1, 5),
+                LocalDate.of(2024, 1, 15), 1_000.0, 2_500.0, null, 20);
+        // Approved (i % 3 == 0) with amounts 1,000-2,500 leaves i = 12..24, all filed Jan 7-13
+        assertEquals(List.of("Paged claim 24", "Paged claim 21", "Paged claim 18", "Paged claim 15", "Paged claim 12"),
+                approved.getItems().stream().map(Claim::getDescription).toList());
+        assertNull(approved.getNextCursor());
+    }
+
+    @Test
+    void bulkTransitionReportsEachClaimAndWritesInBatches() {
+        List<Claim> bulk = claimRepository.saveAll(claimsInStatuses("bulk", 300));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<String> ids = new ArrayList<>(bulk.stream().map(Claim::getClaimId).toList());
+        ids.add("missing-claim");
+        ids.add(ids.get(0));
+        statistics.clear();
+        List<ClaimStatusResultDTO> results = claimService.updateClaimStatuses(ids, "Approved");
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(301, results.size());
+        Map<ClaimService.TransitionOutcome, Long> outcomes = results.stream()
+                .collect(Collectors.groupingBy(ClaimStatusResultDTO::getOutcome, Collectors.counting()));
+        assertEquals(240L, outcomes.get(ClaimService.TransitionOutcome.UPDATED));
+        assertEquals(30L, outcomes.get(ClaimService.TransitionOutcome.UNCHANGED));
+        assertEquals(30L, outcomes.get(ClaimService.TransitionOutcome.INVALID_TRANSITION));
+        assertEquals(1L, outcomes.get(ClaimService.TransitionOutcome.NOT_FOUND));
+        assertEquals("Cannot move a claim from Rejected to Approved", results.get(1).getError());
+        assertTrue(bulkStatements <= 10, "bulk statements: " + bulkStatements);
+
+        assertEquals(270L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM claims WHERE user_id LIKE 'bulk-owner-%' "
+                + "AND status = 'Approved'", Long.class));
+        assertEquals(30L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM claims WHERE user_id LIKE 'bulk-owner-%' "
+                + "AND status = 'Rejected'", Long.class));
+        assertEquals(240L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE user_id LIKE 'bulk-owner-%' "
+                + "AND type = 'CLAIM_UPDATE'", Long.class));
+    }
+
+    @Test
+    void singleClaimUpdateFollowsTheSameTransitions() {
+        List<Claim> claims = claimRepository.saveAll(claimsInStatuses("single", 10));
+        Claim rejected = claims.get(1);
+        Claim pending = claims.get(5);
+
+        rejected.setStatus("Approved");
+        rejected.setDescription("edited");
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> claimService.updateClaim(rejected.getClaimId(), rejected));
+        assertEquals("Cannot move a claim from Rejected to Approved", error.getMessage());
+        Claim unchanged = claimRepository.findById(rejected.getClaimId()).orElseThrow();
+        assertEquals("Rejected", unchanged.getStatus());
+        assertEquals("single claim 1", unchanged.getDescription());
+
+        // Edits that keep the status are not transitions
+        unchanged.setDescription("edited");
+        assertEquals("edited", claimService.updateClaim(unchanged.getClaimId(), unchanged).getDescription());
+
+        pending.setStatus("Under Review");
+        assertEquals("Under Review", claimService.updateClaim(pending.getClaimId(), pending).getStatus());
+        pending.setStatus("Archived");
+        assertThrows(IllegalArgumentException.class, () -> claimService.updateClaim(pending.getClaimId(), pending));
+        // The owner's notification is pushed after commit; let it finish before other tests count statements
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertEquals(0L,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_outbox", Long.class)));
+    }
+
+    // One in ten already Approved, one in ten Rejected (final), the rest Pending or Under Review
+    private static List<Claim> claimsInStatuses(String prefix, int count) {
+        List<Claim> claims = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String status = switch (i % 10) {
+                case 0 -> "Approved";
+                case 1 -> "Rejected";
+                case 2, 3, 4 -> "Under Review";
+                default -> "Pending";
+            };
+            claims.add(Claim.builder()
+                    .policyId(prefix + "-policy")
+                    .userId(prefix + "-owner-" + (i % 25))
+                    .description(prefix + " claim " + i)
+                    .status(status)
+                    .amount(250.0)
+                    .claimType("Vehicle")
+                    .dateFiled(LocalDate.of(2024, 2, 1))
+                    .dateOfIncident(LocalDate.of(2024, 1, 20))
+                    .build());
+        }
+        return claims;
+    }
+}
@@ -0,0 +1,144 @@
+package com.insurai.insurai.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.insurai.insurai.handler.NotificationWebSocketHandler;
+import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.repository.NotificationRepository;
+import com.insurai.insurai.security.JwtHandshakeInterceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Two backend nodes sharing a stand-in for PostgreSQL LISTEN/NOTIFY: every published payload is
+// handed, asynchronously and in order, to the listeners of all nodes
+class NotificationBusMultiNodeTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final StandInBroker broker = new StandInBroker();
+    private final Node nodeA = new Node();
+    private final Node nodeB = new Node();
+
+    @AfterEach
+    void tearDown() {
+        broker.shutdown();
+    }
+
+    @Test
+    void notificationCreatedOnOneNodeReachesSocketsOnAnother() throws Exception {
+        WebSocketSession onB = nodeB.connect("user-b");
+        WebSocketSession onA = nodeA.connect("user-a");
+
+        nodeA.bus.publish(notification("n-1", "user-b"));
+
+        verify(onB, timeout(5000)).sendMessage(any(WebSocketMessage.class));
+        Thread.sleep(100);
+        verify(onA, never()).sendMessage(any(WebSocketMessage.class));
+    }
+
+    @Test
+    void userConnectedToBothNodesGetsTheNotificationOnEach() throws Exception {
+        WebSocketSession onA = nodeA.connect("user-1");
+        WebSocketSession onB = nodeB.connect("user-1");
+
+        nodeB.bus.publish(notification("n-1", "user-1"));
+        nodeB.bus.publish(notification("n-2", "user-1"));
+
+        verify(onA, timeout(5000).times(2)).sendMessage(any(WebSocketMessage.class));
+        verify(onB, timeout(5000).times(2)).sendMessage(any(WebSocketMessage.class));
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.delivered() == 4);
+        assertEquals(4, broker.delivered());
+    }
+
+    private static Notification notification(String id, String userId) {
+        return Notification.builder()
+                .id(id)
+                .userId(userId)
+                .type("NEW_CLAIM")
+                .message("A new claim has been submitted for review")
+                .timestamp(LocalDateTime.of(2030, 1, 1, 12, 0))
+                .build();
+    }
+
+    private final class Node {
+
+        private final NotificationBus bus = new BrokerNotificationBus(broker, objectMapper);
+        private final NotificationReplayLog replayLog = new NotificationReplayLog(new NotificationFrameEncoder(objectMapper),
+                mock(NotificationRepository.class), 100, 600_000, 200);
+        private final NotificationWebSocketHandler handler = new NotificationWebSocketHandler(replayLog, Runnable::run,
+                new SimpleMeterRegistry(), 64 * 1024, 10_000);
+
+        private Node() {
+            new LocalNotificationDelivery(bus, replayLog, handler, mock(NotificationStreamService.class));
+        }
+
+        private WebSocketSession connect(String userId) throws Exception {
+            WebSocketSession session = mock(WebSocketSession.class);
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE, userId);
+            when(session.getAttributes()).thenReturn(attributes);
+            when(session.getId()).thenReturn(UUID.randomUUID().toString());
+            when(session.isOpen()).thenReturn(true);
+            handler.afterConnectionEstablished(session);
+            return session;
+        }
+    }
+
+    // In-JVM stand-in for a LISTEN/NOTIFY channel: one delivery thread, like PostgreSQL's per-connection queue
+    private static final class StandInBroker implements NotificationBroker {
+
+        private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+        private final ExecutorService delivery = Executors.newSingleThreadExecutor();
+        private volatile int delivered;
+
+        @Override
+        public void publish(String payload) {
+            delivery.execute(() -> {
+                for (Consumer<String> listener : listeners) {
+                    listener.accept(payload);
+                    delivered++;
+                }
+            });
+        }
+
+        @Override
+        public void listen(Consumer<String> listener) {
+            listeners.add(listener);
+        }
+
+        private int delivered() {
+            return delivered;
+        }
+
+        private void shutdown() {
+            delivery.shutdownNow();
+        }
+    }
+}
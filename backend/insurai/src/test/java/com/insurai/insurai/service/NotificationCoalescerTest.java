@@ -0,0 +1,74 @@
+package com.insurai.insurai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NotificationCoalescerTest {
+
+    private static final List<String> STAFF = List.of("agent-1", "agent-2", "admin-1");
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final NotificationCoalescer coalescer = new NotificationCoalescer(notificationService, Runnable::run, "NEW_CLAIM=60000");
+
+    @Test
+    void burstOfNewClaimsBecomesOneDigestPerUser() {
+        int claims = 100;
+        for (int i = 0; i < claims; i++) {
+            coalescer.submit(STAFF, "NEW_CLAIM", "A new claim has been submitted for review: claim " + i);
+        }
+        verify(notificationService, never()).createNotifications(anyList(), anyString(), anyString());
+
+        coalescer.flushDue();
+        verify(notificationService, never()).createNotifications(anyList(), anyString(), anyString());
+
+        coalescer.flushAll();
+        verify(notificationService).createNotifications(STAFF, "NEW_CLAIM", "100 new claims submitted for review");
+        verify(notificationService, times(1)).createNotifications(anyList(), anyString(), anyString());
+    }
+
+    @Test
+    void dueWindowsAreWrittenOnTheExecutorNotTheSchedulerThread() {
+        List<Runnable> handedOff = new ArrayList<>();
+        NotificationCoalescer immediate = new NotificationCoalescer(notificationService, handedOff::add, "NEW_CLAIM=0");
+        immediate.submit(STAFF, "NEW_CLAIM", "A new claim has been submitted for review: due");
+
+        immediate.flushDue();
+        verify(notificationService, never()).createNotifications(anyList(), anyString(), anyString());
+        assertEquals(1, handedOff.size());
+
+        handedOff.get(0).run();
+        verify(notificationService).createNotifications(STAFF, "NEW_CLAIM", "A new claim has been submitted for review: due");
+    }
+
+    @Test
+    void singleEventKeepsItsMessageAndCountsAreKeptPerUser() {
+        coalescer.submit(List.of("agent-1"), "NEW_CLAIM", "A new claim has been submitted for review: only one");
+        coalescer.submit(List.of("agent-2"), "NEW_CLAIM", "first");
+        coalescer.submit(List.of("agent-2"), "NEW_CLAIM", "second");
+
+        coalescer.flushAll();
+        verify(notificationService).createNotifications(List.of("agent-1"), "NEW_CLAIM",
+                "A new claim has been submitted for review: only one");
+        verify(notificationService).createNotifications(List.of("agent-2"), "NEW_CLAIM", "2 new claims submitted for review");
+    }
+
+    @Test
+    void typesWithoutAWindowAreWrittenImmediately() {
+        coalescer.submit(List.of("user-1"), "APPOINTMENT_BOOKED", "booked");
+
+        verify(notificationService).createNotifications(List.of("user-1"), "APPOINTMENT_BOOKED", "booked");
+        coalescer.flushAll();
+        verify(notificationService, times(1)).createNotifications(any(), any(), any());
+    }
+}
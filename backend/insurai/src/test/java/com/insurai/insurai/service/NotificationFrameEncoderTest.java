@@ -0,0 +1,109 @@
+package com.insurai.insurai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.socket.TextMessage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurai.insurai.handler.NotificationFrame;
+import com.insurai.insurai.model.Notification;
+
+// Uses the Boot-configured ObjectMapper so the encoder is checked against the real application settings
+@JsonTest
+@Import(NotificationFrameEncoder.class)
+class NotificationFrameEncoderTest {
+
+    private static final int SESSIONS_PER_USER = 3;
+
+    @Autowired
+    private ObjectMapper applicationMapper;
+
+    @Autowired
+    private NotificationFrameEncoder encoder;
+
+    @Test
+    void timestampsAreWrittenAsIsoStrings() throws Exception {
+        NotificationFrame frame = encoder.encode(notification(), "epoch-1", 7);
+
+        JsonNode json = applicationMapper.readTree(frame.getPayload());
+        assertEquals("2030-01-02T03:04:05", json.get("timestamp").asText());
+        assertEquals("user-1", frame.getUserId());
+        assertEquals("n-1", json.get("id").asText());
+        assertEquals(7, json.get("seq").asLong());
+        assertEquals("epoch-1", json.get("epoch").asText());
+        assertSame(frame.getMessage(), frame.getMessage());
+    }
+
+    @Test
+    void encodingOnceAllocatesLessPerDeliveredNotification() throws Exception {
+        Notification notification = notification();
+        int rounds = 200_000;
+
+        // Previous path: serialize to a String, then a fresh TextMessage for every target session.
+        // Each delivery reads the payload length twice (enqueue and flush accounting in SessionSender).
+        Runnable legacy = () -> {
+            try {
+                String json = applicationMapper.writeValueAsString(notification);
+                for (int s = 0; s < SESSIONS_PER_USER; s++) {
+                    deliver(new TextMessage(json));
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        // Current path: one shared frame for every target session
+        Runnable shared = () -> {
+            try {
+                NotificationFrame frame = encoder.encode(notification, "epoch-1", 7);
+                for (int s = 0; s < SESSIONS_PER_USER; s++) {
+                    deliver(frame.getMessage());
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        measure(legacy, rounds);
+        measure(shared, rounds);
+        double legacyBytes = measure(legacy, rounds);
+        double sharedBytes = measure(shared, rounds);
+        assertTrue(sharedBytes < legacyBytes,
+                String.format("bytes per notification: per-session frames %.0f, shared frame %.0f", legacyBytes, sharedBytes));
+    }
+
+    private static double measure(Runnable task, int rounds) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < rounds; i++) {
+            task.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / (double) rounds;
+    }
+
+    private static long sink;
+
+    private static void deliver(TextMessage message) {
+        sink += message.getPayloadLength();
+        sink += message.getPayloadLength();
+    }
+
+    private static Notification notification() {
+        return Notification.builder()
+                .id("n-1")
+                .userId("user-1")
+                .type("CLAIM_UPDATE")
+                .message("Your claim status has been updated to: Approved")
+                .timestamp(LocalDateTime.of(2030, 1, 2, 3, 4, 5))
+                .build();
+    }
+}
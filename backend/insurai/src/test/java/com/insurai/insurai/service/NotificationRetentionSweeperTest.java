@@ -0,0 +1,92 @@
+package com.insurai.insurai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.insurai.insurai.dto.NotificationPageDTO;
+import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.repository.NotificationRepository;
+
+@SpringBootTest(properties = {
+    "notifications.retention.batch-size=2",
+    "notifications.retention.pause-ms=0"
+})
+class NotificationRetentionSweeperTest {
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("notifications.retention.archive-dir", archiveDir::toString);
+    }
+
+    @Autowired
+    private NotificationRetentionSweeper sweeper;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void oldReadNotificationsMoveToTheArchiveAndStayReadable() throws Exception {
+        LocalDateTime old = LocalDateTime.now().minusDays(200);
+        Notification januaryOne = save("retention-user", true, LocalDateTime.of(2024, 1, 10, 9, 0));
+        Notification januaryTwo = save("retention-user", true, LocalDateTime.of(2024, 1, 20, 9, 0));
+        Notification february = save("retention-user", true, LocalDateTime.of(2024, 2, 5, 9, 0));
+        save("other-retention-user", true, LocalDateTime.of(2024, 2, 6, 9, 0));
+        Notification oldUnread = save("retention-user", false, old);
+        Notification recentRead = save("retention-user", true, LocalDateTime.now().minusDays(1));
+
+        // batch size 2 makes the sweep run several archive-then-delete batches
+        assertEquals(4, sweeper.sweep());
+        assertEquals(0, sweeper.sweep());
+
+        assertTrue(notificationRepository.findById(oldUnread.getId()).isPresent());
+        assertTrue(notificationRepository.findById(recentRead.getId()).isPresent());
+        assertTrue(notificationRepository.findById(januaryOne.getId()).isEmpty());
+        assertTrue(Files.exists(archiveDir.resolve("notifications-2024-01.jsonl.gz")));
+        assertTrue(Files.exists(archiveDir.resolve("notifications-2024-02.jsonl.gz")));
+
+        List<Notification> archived = notificationService.getArchivedNotifications("retention-user", null, null, null, 20).getItems();
+        assertEquals(List.of(february.getId(), januaryTwo.getId(), januaryOne.getId()),
+                archived.stream().map(Notification::getId).toList());
+        assertEquals(januaryOne.getTimestamp(), archived.get(2).getTimestamp());
+
+        List<Notification> january = notificationService.getArchivedNotifications("retention-user",
+                YearMonth.of(2024, 1), YearMonth.of(2024, 1), null, 20).getItems();
+        assertEquals(2, january.size());
+
+        NotificationPageDTO first = notificationService.getArchivedNotifications("retention-user", null, null, null, 2);
+        assertEquals(List.of(february.getId(), januaryTwo.getId()), first.getItems().stream().map(Notification::getId).toList());
+        NotificationPageDTO second = notificationService.getArchivedNotifications("retention-user", null, null, first.getNextCursor(), 2);
+        assertEquals(List.of(januaryOne.getId()), second.getItems().stream().map(Notification::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    private Notification save(String userId, boolean read, LocalDateTime timestamp) {
+        return notificationRepository.save(Notification.builder()
+                .userId(userId)
+                .type("NEW_CLAIM")
+                .message("archived")
+                .read(read)
+                .timestamp(timestamp)
+                .build());
+    }
+}
@@ -0,0 +1,154 @@
+package com.insurai.insurai.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurai.insurai.handler.NotificationWebSocketHandler;
+import com.insurai.insurai.model.Notification;
+import com.insurai.insurai.model.NotificationOutboxEntry;
+import com.insurai.insurai.repository.NotificationOutboxRepository;
+import com.insurai.insurai.repository.NotificationRepository;
+
+@SpringBootTest
+class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    private NotificationWebSocketHandler webSocketHandler;
+
+    @Test
+    void committedNotificationIsPushedAndLeavesTheOutbox() {
+        notificationService.createNotification("outbox-user", "TEST", "committed");
+
+        verify(webSocketHandler, timeout(5000)).send(argThat(frame -> frame.getUserId().equals("outbox-user")));
+        await().atMost(Duration.ofSeconds(5)).until(() -> outboxRepository.count() == 0);
+    }
+
+    @Test
+    void rolledBackNotificationIsNeverPushed() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            notificationService.createNotification("rollback-user", "TEST", "rolled back");
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(300);
+        verify(webSocketHandler, never()).send(argThat(frame -> frame.getUserId().equals("rollback-user")));
+        assertEquals(0, notificationRepository.findByUserIdOrderByTimestampDesc("rollback-user").size());
+    }
+
+    @Test
+    void concurrentDrainsSkipRowsAnotherDrainHasLocked() throws Exception {
+        // Due in the future so the scheduled poll leaves them alone
+        LocalDateTime later = LocalDateTime.now().plusHours(1);
+        for (int i = 0; i < 3; i++) {
+            outboxRepository.save(NotificationOutboxEntry.builder()
+                    .notificationId("locked-" + i).createdAt(later).nextAttemptAt(later).build());
+        }
+        LocalDateTime due = later.plusMinutes(1);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(status -> {
+                assertEquals(3, outboxRepository.lockDueEntries(due, 10).size());
+                CompletableFuture<Integer> otherNode = CompletableFuture.supplyAsync(() -> tx.execute(inner ->
+                        outboxRepository.lockDueEntries(due, 10).size()));
+                assertEquals(0, otherNode.orTimeout(10, TimeUnit.SECONDS).join());
+            });
+        } finally {
+            outboxRepository.deleteAllInBatch();
+        }
+    }
+
+    @Test
+    void unreadCountFollowsCreatesAndReads() {
+        String userId = "counter-user";
+        assertEquals(0, notificationService.getUnreadCount(userId));
+
+        Notification first = notificationService.createNotification(userId, "TEST", "first");
+        List<Notification> batch = notificationService.createNotifications(List.of(userId, userId), "TEST", "batch");
+        assertEquals(3, notificationService.getUnreadCount(userId));
+
+        notificationService.markAsRead(first.getId());
+        notificationService.markAsRead(first.getId());
+        assertEquals(2, notificationService.getUnreadCount(userId));
+
+        Notification latest = notificationService.createNotification(userId, "TEST", "latest");
+        assertEquals(-1, notificationService.markAllAsRead("someone-else", latest.getId()));
+        // The batch shares one timestamp, so the id decides which of its rows fall up to a given one
+        List<String> batchIds = batch.stream().map(Notification::getId).sorted().toList();
+        assertEquals(1, notificationService.markAllAsRead(userId, batchIds.get(0)));
+        assertEquals(2, notificationService.getUnreadCount(userId));
+        assertEquals(1, notificationService.markAllAsRead(userId, batchIds.get(1)));
+        assertEquals(1, notificationService.getUnreadCount(userId));
+        assertEquals(1, notificationService.markAllAsRead(userId, null));
+        assertEquals(0, notificationService.getUnreadCount(userId));
+        assertEquals(0, notificationRepository.countByUserIdAndReadFalse(userId));
+    }
+
+    // Timing only; run with -Pbenchmarks
+    @Test
+    @Tag("benchmark")
+    void benchmarkCounterAndBulkReadAgainstRowShipping() {
+        String userId = "bench-user";
+        int unread = 500;
+        notificationService.createNotifications(Collections.nCopies(unread, userId), "TEST", "bench");
+        int rounds = 50;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            assertEquals(unread, notificationService.getUnreadNotificationsByUserId(userId).size());
+        }
+        long listNanos = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            assertEquals(unread, notificationService.getUnreadCount(userId));
+        }
+        long countNanos = (System.nanoTime() - start) / rounds;
+
+        List<Notification> rows = notificationService.getUnreadNotificationsByUserId(userId);
+        start = System.nanoTime();
+        for (Notification row : rows.subList(0, unread / 2)) {
+            notificationService.markAsRead(row.getId());
+        }
+        long perRowNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        assertEquals(unread / 2, notificationService.markAllAsRead(userId, null));
+        long bulkNanos = System.nanoTime() - start;
+
+        System.out.printf("unread badge (%d rows): row shipping %d us, cached counter %d us%n",
+                unread, listNanos / 1_000, countNanos / 1_000);
+        System.out.printf("mark %d read: per-row %d ms, single UPDATE %d ms%n",
+                unread / 2, perRowNanos / 1_000_000, bulkNanos / 1_000_000);
+        assertEquals(0, notificationService.getUnreadCount(userId));
+    }
+}
@@ -0,0 +1,148 @@
+package com.insurai.insurai.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.insurai.insurai.model.User;
+import com.insurai.insurai.model.UserCategory;
+import com.insurai.insurai.repository.UserRepository;
+import com.insurai.insurai.util.JwtUtil;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+// Tomcat is capped at 20 request threads: thousands of open streams only work if none of them holds one.
+// A short heartbeat makes the server notice closed clients quickly, as it only learns of them on a write.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "server.tomcat.threads.max=20",
+    "notifications.sse.send-threads=4",
+    "notifications.sse.heartbeat-ms=2000"
+})
+class NotificationStreamServiceTest {
+
+    private static final int STREAMS = 2000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NotificationStreamService streamService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final List<Disposable> subscriptions = new ArrayList<>();
+    private ConnectionProvider connections;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        connections = ConnectionProvider.builder("sse-load").maxConnections(STREAMS + 10).pendingAcquireMaxCount(-1).build();
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriptions.forEach(Disposable::dispose);
+        await().atMost(Duration.ofSeconds(30)).until(() -> streamService.getStreamCount() == 0);
+        connections.dispose();
+    }
+
+    // Opens thousands of streams and takes over a minute; run with -Pload
+    @Test
+    @Tag("load")
+    void thousandsOfStreamsShareASmallThreadPool() {
+        User user = saveUser("sse-load@example.com");
+        String token = jwtUtil.generateToken(user.getEmail(), user.getCategory().toString());
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        AtomicInteger received = new AtomicInteger();
+        for (int i = 0; i < STREAMS; i++) {
+            subscriptions.add(events(token, null).subscribe(event -> received.incrementAndGet()));
+        }
+        await().atMost(Duration.ofSeconds(60)).until(() -> streamService.getStreamCount() == STREAMS);
+        int threadsOpen = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        notificationService.createNotification(user.getId(), "TEST", "Delivered to every open stream");
+        await().atMost(Duration.ofSeconds(30)).until(() -> received.get() == STREAMS);
+
+        assertTrue(threadsOpen - threadsBefore < STREAMS / 20,
+                "streams must not cost a thread each: " + threadsBefore + " -> " + threadsOpen + " live threads");
+    }
+
+    @Test
+    void reconnectWithLastEventIdReceivesOnlyMissedNotifications() {
+        User user = saveUser("sse-resume@example.com");
+        String token = jwtUtil.generateToken(user.getEmail(), user.getCategory().toString());
+
+        List<ServerSentEvent<String>> first = new CopyOnWriteArrayList<>();
+        Disposable stream = events(token, null).subscribe(first::add);
+        await().atMost(Duration.ofSeconds(10)).until(() -> streamService.getStreamCount() == 1);
+        notificationService.createNotification(user.getId(), "TEST", "seen");
+        await().atMost(Duration.ofSeconds(10)).until(() -> first.size() == 1);
+        stream.dispose();
+        await().atMost(Duration.ofSeconds(10)).until(() -> streamService.getStreamCount() == 0);
+
+        notificationService.createNotification(user.getId(), "TEST", "missed one");
+        notificationService.createNotification(user.getId(), "TEST", "missed two");
+
+        List<ServerSentEvent<String>> resumed = new CopyOnWriteArrayList<>();
+        subscriptions.add(events(token, first.get(0).id()).subscribe(resumed::add));
+        await().atMost(Duration.ofSeconds(10)).until(() -> resumed.size() == 2);
+        assertTrue(resumed.get(0).data().contains("missed one"));
+        assertTrue(resumed.get(1).data().contains("missed two"));
+        assertEquals(1, streamService.getStreamCount());
+    }
+
+    private Flux<ServerSentEvent<String>> events(String token, String lastEventId) {
+        return webClient.get()
+                .uri(uri -> uri.path("/api/notifications/stream").queryParam("token", token).build())
+                .headers(headers -> {
+                    if (lastEventId != null) {
+                        headers.set("Last-Event-ID", lastEventId);
+                    }
+                })
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() { })
+                .filter(event -> "notification".equals(event.event()));
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .password("unused")
+                .category(UserCategory.USER)
+                .build());
+    }
+}
@@ -0,0 +1,52 @@
+package com.insurai.insurai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+class PostgresNotificationBrokerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final PostgresNotificationBroker broker = new PostgresNotificationBroker(mock(DataSource.class), jdbcTemplate,
+            transactionManager, "insurai_notifications", 500);
+
+    @Test
+    void publishRunsInASavepointOfTheCallersTransaction() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        broker.publish("{}");
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_NESTED, definition.getValue().getPropagationBehavior());
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class), eq("insurai_notifications"), eq("{}"));
+    }
+
+    @Test
+    void payloadsAtTheNotifyLimitNeverReachTheDatabase() {
+        // 4000 two-byte characters: well under the limit in chars, exactly 8000 bytes on the wire
+        assertThrows(IllegalArgumentException.class, () -> broker.publish("é".repeat(4000)));
+        verifyNoInteractions(transactionManager, jdbcTemplate);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        broker.publish("x".repeat(PostgresNotificationBroker.MAX_PAYLOAD_BYTES));
+        verify(jdbcTemplate, times(1)).query(any(String.class), any(ResultSetExtractor.class), any(Object[].class));
+    }
+}
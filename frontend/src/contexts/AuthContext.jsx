@@ -1,4 +1,4 @@
-import { createContext, useContext, useState, useEffect } from 'react';
+import { createContext, useContext, useState, useEffect, useRef } from 'react';
 
 const AuthContext = createContext();
 
@@ -14,6 +14,7 @@ export const AuthProvider = ({ children }) => {
   const [user, setUser] = useState(null);
   const [token, setToken] = useState(null);
   const [loading, setLoading] = useState(true);
+  const refreshInFlight = useRef(null);
 
   // Check for existing token on app load and validate it
   useEffect(() => {
@@ -42,14 +43,17 @@ export const AuthProvider = ({ children }) => {
         setToken(tokenToValidate);
         setUser(userData);
       } else {
-        // Token is invalid, clear storage
-        localStorage.removeItem('token');
-        localStorage.removeItem('user');
+        // Access token expired or revoked: keep the session if the refresh token still works
+        const refreshed = await refreshToken();
+        if (refreshed) {
+          setUser(userData);
+        } else {
+          clearSession();
+        }
       }
     } catch (error) {
       console.error('Token validation failed:', error);
-      localStorage.removeItem('token');
-      localStorage.removeItem('user');
+      clearSession();
     } finally {
       setLoading(false);
     }
@@ -76,6 +80,7 @@ export const AuthProvider = ({ children }) => {
 
       // Store in localStorage for persistence
       localStorage.setItem('token', data.token);
+      localStorage.setItem('refreshToken', data.refreshToken);
       localStorage.setItem('user', JSON.stringify(data.user));
 
       return { success: true, user: data.user };
@@ -84,44 +89,82 @@ export const AuthProvider = ({ children }) => {
     }
   };
 
-  const logout = () => {
+  const clearSession = () => {
     setUser(null);
     setToken(null);
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
   };
 
+  // Revokes the access token and the refresh token server-side before forgetting them
+  const logout = async () => {
+    const currentToken = localStorage.getItem('token');
+    const currentRefreshToken = localStorage.getItem('refreshToken');
+    clearSession();
+    try {
+      await fetch('http://localhost:8080/api/auth/logout', {
+        method: 'POST',
+        headers: {
+          'Content-Type': 'application/json',
+          ...(currentToken ? { 'Authorization': `Bearer ${currentToken}` } : {})
+        },
+        body: JSON.stringify({ refreshToken: currentRefreshToken })
+      });
+    } catch (error) {
+      console.error('Logout request failed:', error);
+    }
+  };
+
   const isAuthenticated = () => {
     return token !== null && user !== null;
   };
 
-  const refreshToken = async () => {
+  // Refresh tokens are single-use: each refresh returns the next one, and replaying an old one ends the session.
+  // Concurrent callers (several requests failing with 401 at once) share one refresh instead of each
+  // presenting the same token, which the server would treat as reuse.
+  const refreshToken = () => {
+    if (!refreshInFlight.current) {
+      refreshInFlight.current = rotateRefreshToken().finally(() => {
+        refreshInFlight.current = null;
+      });
+    }
+    return refreshInFlight.current;
+  };
+
+  const rotateRefreshToken = async () => {
+    const currentRefreshToken = localStorage.getItem('refreshToken');
+    if (!currentRefreshToken) {
+      return null;
+    }
     try {
       const response = await fetch('http://localhost:8080/api/auth/refresh', {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json'
         },
-        body: JSON.stringify({ refreshToken: token })
+        body: JSON.stringify({ refreshToken: currentRefreshToken })
       });
 
       if (response.ok) {
         const data = await response.json();
         setToken(data.token);
         localStorage.setItem('token', data.token);
-        return true;
+        localStorage.setItem('refreshToken', data.refreshToken);
+        return data.token;
       }
-      return false;
+      return null;
     } catch (error) {
       console.error('Token refresh failed:', error);
-      return false;
+      return null;
     }
   };
 
   const apiRequest = async (url, options = {}) => {
+    const requestToken = localStorage.getItem('token') || token;
     const defaultOptions = {
       headers: {
-        'Authorization': `Bearer ${token}`,
+        'Authorization': `Bearer ${requestToken}`,
         'Content-Type': 'application/json',
         ...options.headers,
       },
@@ -131,15 +174,17 @@ export const AuthProvider = ({ children }) => {
     try {
       const response = await fetch(url, defaultOptions);
 
-      // If token is expired, try to refresh it
+      // Expired or revoked access tokens are rejected with 401; a 403 is a real permission error and is
+      // returned as is. If another request already refreshed, retry with its token instead of refreshing again
       if (response.status === 401) {
-        const refreshed = await refreshToken();
+        const currentToken = localStorage.getItem('token');
+        const refreshed = currentToken && currentToken !== requestToken ? currentToken : await refreshToken();
         if (refreshed) {
           // Retry the original request with new token
-          defaultOptions.headers.Authorization = `Bearer ${token}`;
+          defaultOptions.headers.Authorization = `Bearer ${refreshed}`;
           return fetch(url, defaultOptions);
         } else {
-          logout();
+          clearSession();
           throw new Error('Authentication expired');
         }
       }
@@ -1,4 +1,4 @@
-import React, { createContext, useContext, useEffect, useState } from 'react';
+import React, { createContext, useContext, useEffect, useRef, useState } from 'react';
 import { useAuth } from './AuthContext';
 
 const NotificationContext = createContext();
@@ -6,42 +6,76 @@ const NotificationContext = createContext();
 export const useNotifications = () => useContext(NotificationContext);
 
 export const NotificationProvider = ({ children }) => {
-  const { user, apiRequest } = useAuth();
+  const { user, token, apiRequest } = useAuth();
   const [notifications, setNotifications] = useState([]);
   const [unreadCount, setUnreadCount] = useState(0);
-  const [ws, setWs] = useState(null);
+  // Position of the last pushed frame, sent back on reconnect so the server replays only what was missed
+  const resumeRef = useRef(null);
+  const reconnectRef = useRef(null);
+  const activeRef = useRef(false);
+  const seenIdsRef = useRef(new Set());
+  // The live socket, and the token to open the next one with (reconnects run from stale closures)
+  const wsRef = useRef(null);
+  const tokenRef = useRef(token);
+  tokenRef.current = token;
 
   useEffect(() => {
-    if (user) {
+    if (user && token) {
+      activeRef.current = true;
       fetchNotifications();
       connectWebSocket();
     }
     return () => {
-      if (ws) ws.close();
+      activeRef.current = false;
+      clearTimeout(reconnectRef.current);
+      // Detach onclose first so closing this socket does not schedule a reconnect with its old token
+      const websocket = wsRef.current;
+      wsRef.current = null;
+      if (websocket) {
+        websocket.onclose = null;
+        websocket.close();
+      }
     };
-  }, [user]);
+  }, [user, token]);
 
   const fetchNotifications = async () => {
     try {
-      const response = await apiRequest(`http://localhost:8080/api/notifications/${user.id}`);
+      const response = await apiRequest(`http://localhost:8080/api/notifications/${user.id}/page?limit=50`);
       const data = await response.json();
-      setNotifications(data);
-      setUnreadCount(data.filter(n => !n.isRead).length);
+      setNotifications(data.items);
+      data.items.forEach(n => seenIdsRef.current.add(n.id));
+      const countResponse = await apiRequest(`http://localhost:8080/api/notifications/${user.id}/unread/count`);
+      const { count } = await countResponse.json();
+      setUnreadCount(count);
     } catch (error) {
       console.error('Error fetching notifications:', error);
     }
   };
 
   const connectWebSocket = () => {
-    const websocket = new WebSocket('ws://localhost:8080/ws/notifications');
+    let url = `ws://localhost:8080/ws/notifications?token=${encodeURIComponent(tokenRef.current)}`;
+    const resume = resumeRef.current;
+    if (resume) {
+      url += `&epoch=${encodeURIComponent(resume.epoch)}&lastSeq=${resume.seq}&lastId=${encodeURIComponent(resume.id)}`;
+    }
+    const websocket = new WebSocket(url);
     websocket.onopen = () => console.log('WebSocket connected');
-    websocket.onclose = () => console.log('WebSocket disconnected');
+    websocket.onclose = () => {
+      console.log('WebSocket disconnected');
+      if (activeRef.current && wsRef.current === websocket) {
+        reconnectRef.current = setTimeout(connectWebSocket, 2000);
+      }
+    };
     websocket.onerror = (error) => console.error('WebSocket error:', error);
     websocket.onmessage = (event) => {
       try {
         const newNotification = JSON.parse(event.data);
         console.log('Received notification:', newNotification);
         if (newNotification.userId === user.id) {
+          resumeRef.current = { epoch: newNotification.epoch, seq: newNotification.seq, id: newNotification.id };
+          // A catch-up after reconnect can repeat a notification we already have
+          if (seenIdsRef.current.has(newNotification.id)) return;
+          seenIdsRef.current.add(newNotification.id);
           setNotifications(prev => [newNotification, ...prev]);
           setUnreadCount(prev => prev + 1);
         } else {
@@ -51,7 +85,7 @@ export const NotificationProvider = ({ children }) => {
         console.error('Error parsing WebSocket message:', error);
       }
     };
-    setWs(websocket);
+    wsRef.current = websocket;
   };
 
   const markAsRead = async (id) => {
@@ -66,15 +100,11 @@ export const NotificationProvider = ({ children }) => {
 
   const markAllAsRead = async () => {
     try {
-      const unreadNotifications = notifications.filter(n => !n.isRead);
-      if (unreadNotifications.length === 0) return;
-
-      // Mark all unread notifications as read in bulk
-      const promises = unreadNotifications.map(notification =>
-        apiRequest(`http://localhost:8080/api/notifications/${notification.id}/read`, { method: 'PUT' })
-      );
+      if (notifications.length === 0) return;
 
-      await Promise.all(promises);
+      // One bulk update up to the newest notification we have shown, so anything arriving meanwhile stays unread
+      const upToId = encodeURIComponent(notifications[0].id);
+      await apiRequest(`http://localhost:8080/api/notifications/${user.id}/read-all?upToId=${upToId}`, { method: 'PUT' });
 
       setNotifications(prev => prev.map(n => ({ ...n, isRead: true })));
       setUnreadCount(0);